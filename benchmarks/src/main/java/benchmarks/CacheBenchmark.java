@@ -0,0 +1,209 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cachingSystem.classes.FIFOCache;
+import cachingSystem.classes.LRUCache;
+import cachingSystem.classes.ObservableCache;
+import cachingSystem.classes.ObservableFIFOCache;
+import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.interfaces.Cache;
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+/**
+ * Measures a get, followed by a put on a miss, on the cache classes. The
+ * caches are not thread safe, so with several threads every access holds the
+ * cache lock, the same way the FileCache uses them.
+ *
+ * Run with -t to change the number of threads and with -prof gc for the
+ * allocation rate (the BenchmarkRunner adds it by default).
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int TRACE_LENGTH = 1 << 20;
+    private static final int KEY_SPACE_FACTOR = 4;
+    private static final long TIME_TO_LIVE = 1000;
+
+    /**
+     * Cache classes under test.
+     */
+    public enum CacheType {
+        FIFO, OBSERVABLE_FIFO, LRU, TIME_AWARE,
+    }
+
+    @Param({"FIFO", "OBSERVABLE_FIFO", "LRU", "TIME_AWARE"})
+    private CacheType type;
+
+    @Param({"UNIFORM", "ZIPF", "SCAN"})
+    private KeyDistribution distribution;
+
+    @Param({"1000", "100000"})
+    private int capacity;
+
+    private Cache<String, String> cache;
+    private FIFOCache<String, String> fifo;
+    private String[] keys;
+
+    private final AtomicInteger nextSeed = new AtomicInteger();
+
+    /**
+     * Accesses made by one thread.
+     */
+    @State(Scope.Thread)
+    public static class Accesses {
+        private int[] trace;
+        private int next;
+
+        /**
+         * Generates the keys of the thread.
+         *
+         * @param benchmark
+         *            the shared benchmark state
+         */
+        @Setup(Level.Trial)
+        public void setUp(final CacheBenchmark benchmark) {
+            trace = benchmark.distribution.trace(
+                    KEY_SPACE_FACTOR * benchmark.capacity, TRACE_LENGTH,
+                    benchmark.nextSeed.incrementAndGet());
+        }
+
+        private int nextKey() {
+            int key = trace[next];
+            next = (next + 1) & (TRACE_LENGTH - 1);
+            return key;
+        }
+    }
+
+    /**
+     * Creates the cache and fills it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new String[KEY_SPACE_FACTOR * capacity];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = "/files/file" + i + ".txt";
+        }
+
+        cache = createCache();
+        for (int i = 0; i < capacity; ++i) {
+            access(keys[i]);
+        }
+    }
+
+    /**
+     * Creates a cache of the tested type holding @capacity entries.
+     *
+     * @return the cache
+     */
+    private Cache<String, String> createCache() {
+        ObservableCache<String, String> observable;
+
+        switch (type) {
+        case FIFO:
+            // Bounded by the benchmark, it has no stale policy
+            fifo = new FIFOCache<>();
+            return fifo;
+        case OBSERVABLE_FIFO:
+            observable = new ObservableFIFOCache<>();
+            break;
+        case LRU:
+            observable = new LRUCache<>();
+            break;
+        case TIME_AWARE:
+            // Bounded by the time to live instead of the capacity
+            TimeAwareCache<String, String> timeAware = new TimeAwareCache<>();
+            timeAware.setExpirePolicy(TIME_TO_LIVE);
+            timeAware.setCacheListener(new BroadcastListener<>());
+            return timeAware;
+        default:
+            throw new IllegalArgumentException("Unsupported cache: " + type);
+        }
+
+        final ObservableCache<String, String> bounded = observable;
+        bounded.setCacheListener(new BroadcastListener<>());
+        bounded.setStalePolicy(new CacheStalePolicy<String, String>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(
+                    final Pair<String, String> entry) {
+                return bounded.size() > capacity;
+            }
+
+            @Override
+            public boolean shouldRemoveEldestEntry(final String key,
+                    final String value, final int size, final long weight) {
+                return size > capacity;
+            }
+        });
+        return bounded;
+    }
+
+    /**
+     * Reads a key, inserting it on a miss.
+     *
+     * @param key
+     *            the key
+     * @return the value
+     */
+    private String access(final String key) {
+        synchronized (cache) {
+            String value = cache.get(key);
+            if (value != null) {
+                return value;
+            }
+
+            cache.put(key, key);
+            if (fifo != null && fifo.size() > capacity) {
+                fifo.remove(fifo.getEldestKey());
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Measures the number of accesses per second.
+     *
+     * @param accesses
+     *            the keys of the thread
+     * @return the value read
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String throughput(final Accesses accesses) {
+        return access(keys[accesses.nextKey()]);
+    }
+
+    /**
+     * Measures the distribution of the access time, including the p99.
+     *
+     * @param accesses
+     *            the keys of the thread
+     * @return the value read
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String latency(final Accesses accesses) {
+        return access(keys[accesses.nextKey()]);
+    }
+}
@@ -0,0 +1,149 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cachingSystem.FileCache;
+import cachingSystem.classes.SystemTicker;
+import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.interfaces.CacheLoader;
+
+/**
+ * Measures FileCache.getFileContents for every strategy. The files are
+ * generated in memory by the loader, so the results show the cost of the cache
+ * and of its listeners, not of the disk.
+ *
+ * The TIME strategy is the cache created with an expiration time instead of a
+ * capacity. The OFF_HEAP strategy gets just enough memory for @capacity files.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileCacheBenchmark {
+
+    private static final int TRACE_LENGTH = 1 << 20;
+    private static final int KEY_SPACE_FACTOR = 4;
+    private static final int FILE_SIZE = 1024;
+    private static final long TIME_TO_LIVE = 1000;
+    private static final String TIME_STRATEGY = "TIME";
+    private static final String OFF_HEAP_STRATEGY = "OFF_HEAP";
+
+    @Param({"FIFO", "LRU", "OFF_HEAP", "TINYLFU", "ARC", "CLOCK", "S3FIFO",
+            "COMPACT_LRU", "TIME"})
+    private String strategy;
+
+    @Param({"UNIFORM", "ZIPF", "SCAN"})
+    private KeyDistribution distribution;
+
+    @Param({"1000", "100000"})
+    private int capacity;
+
+    private FileCache fileCache;
+    private String[] paths;
+
+    private final AtomicInteger nextSeed = new AtomicInteger();
+
+    /**
+     * Accesses made by one thread.
+     */
+    @State(Scope.Thread)
+    public static class Accesses {
+        private int[] trace;
+        private int next;
+
+        /**
+         * Generates the paths of the thread.
+         *
+         * @param benchmark
+         *            the shared benchmark state
+         */
+        @Setup(Level.Trial)
+        public void setUp(final FileCacheBenchmark benchmark) {
+            trace = benchmark.distribution.trace(
+                    KEY_SPACE_FACTOR * benchmark.capacity, TRACE_LENGTH,
+                    benchmark.nextSeed.incrementAndGet());
+        }
+
+        private int nextPath() {
+            int path = trace[next];
+            next = (next + 1) & (TRACE_LENGTH - 1);
+            return path;
+        }
+    }
+
+    /**
+     * Creates the file cache and fills it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        paths = new String[KEY_SPACE_FACTOR * capacity];
+        for (int i = 0; i < paths.length; ++i) {
+            paths[i] = "/files/file" + i + ".txt";
+        }
+
+        StringBuilder builder = new StringBuilder(FILE_SIZE);
+        while (builder.length() < FILE_SIZE) {
+            builder.append('x');
+        }
+        final String contents = builder.toString();
+        CacheLoader<String, String> loader = path -> contents;
+
+        if (TIME_STRATEGY.equals(strategy)) {
+            fileCache = FileCache.createCacheWithExpiration(TIME_TO_LIVE,
+                    TimeAwareCache.ExpireMode.AFTER_ACCESS, new SystemTicker(),
+                    loader);
+        } else if (OFF_HEAP_STRATEGY.equals(strategy)) {
+            fileCache = FileCache.createOffHeapCache(capacity,
+                    (long) capacity * FILE_SIZE, loader);
+        } else {
+            fileCache = FileCache.createCacheWithCapacity(
+                    FileCache.Strategy.valueOf(strategy), capacity, loader);
+        }
+
+        for (int i = 0; i < capacity; ++i) {
+            fileCache.getFileContents(paths[i]);
+        }
+    }
+
+    /**
+     * Measures the number of reads per second.
+     *
+     * @param accesses
+     *            the paths of the thread
+     * @return the contents read
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String throughput(final Accesses accesses) {
+        return fileCache.getFileContents(paths[accesses.nextPath()]);
+    }
+
+    /**
+     * Measures the distribution of the read time, including the p99.
+     *
+     * @param accesses
+     *            the paths of the thread
+     * @return the contents read
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String latency(final Accesses accesses) {
+        return fileCache.getFileContents(paths[accesses.nextPath()]);
+    }
+}
@@ -0,0 +1,137 @@
+package benchmarks;
+
+import java.util.Random;
+
+/**
+ * Ways of choosing the keys accessed by a benchmark. Every distribution draws
+ * keys from [0, keySpace).
+ */
+public enum KeyDistribution {
+
+    /**
+     * Every key is equally likely.
+     */
+    UNIFORM {
+        @Override
+        int[] trace(final int keySpace, final int length, final long seed) {
+            Random random = new Random(seed);
+            int[] trace = new int[length];
+
+            for (int i = 0; i < length; ++i) {
+                trace[i] = random.nextInt(keySpace);
+            }
+            return trace;
+        }
+    },
+
+    /**
+     * A few keys take most of the accesses, like the files of a web server.
+     */
+    ZIPF {
+        @Override
+        int[] trace(final int keySpace, final int length, final long seed) {
+            Random random = new Random(seed);
+            double[] cumulative = zipfCumulative(keySpace);
+            int[] trace = new int[length];
+
+            for (int i = 0; i < length; ++i) {
+                trace[i] = sample(cumulative, random.nextDouble());
+            }
+            return trace;
+        }
+    },
+
+    /**
+     * Zipf accesses interrupted by long sequential scans of keys that are
+     * never seen again, like a backup or a batch job walking all the files.
+     */
+    SCAN {
+        @Override
+        int[] trace(final int keySpace, final int length, final long seed) {
+            Random random = new Random(seed);
+            int hotKeys = keySpace / 2;
+            double[] cumulative = zipfCumulative(hotKeys);
+            int[] trace = new int[length];
+            int nextScanKey = hotKeys;
+
+            for (int i = 0; i < length;) {
+                // A burst of popular keys
+                for (int j = 0; j < SCAN_PERIOD && i < length; ++j, ++i) {
+                    trace[i] = sample(cumulative, random.nextDouble());
+                }
+
+                // Followed by a scan of the cold half of the key space
+                for (int j = 0; j < SCAN_LENGTH && i < length; ++j, ++i) {
+                    trace[i] = nextScanKey;
+                    if (++nextScanKey == keySpace) {
+                        nextScanKey = hotKeys;
+                    }
+                }
+            }
+            return trace;
+        }
+    };
+
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final int SCAN_PERIOD = 4096;
+    private static final int SCAN_LENGTH = 1024;
+
+    /**
+     * Generates a sequence of keys.
+     *
+     * @param keySpace
+     *            the number of distinct keys
+     * @param length
+     *            the number of accesses
+     * @param seed
+     *            the seed of the random generator
+     * @return the keys, in access order
+     */
+    abstract int[] trace(int keySpace, int length, long seed);
+
+    /**
+     * Computes the cumulative probabilities of a Zipf distribution.
+     *
+     * @param keySpace
+     *            the number of keys
+     * @return the probability of choosing a key up to each index
+     */
+    private static double[] zipfCumulative(final int keySpace) {
+        double[] cumulative = new double[keySpace];
+        double sum = 0;
+
+        for (int i = 0; i < keySpace; ++i) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < keySpace; ++i) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Chooses a key using its cumulative probabilities.
+     *
+     * @param cumulative
+     *            the cumulative probabilities
+     * @param uniform
+     *            a uniform random number in [0, 1)
+     * @return the key
+     */
+    private static int sample(final double[] cumulative,
+            final double uniform) {
+        int low = 0;
+        int high = cumulative.length - 1;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < uniform) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -1,11 +1,18 @@
 import observerPattern.classes.KeyStatsListener;
 import observerPattern.classes.StatsListener;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 
 import cachingSystem.FileCache;
 
@@ -13,6 +20,13 @@ public final class Main {
     private static final String FIFO_CACHE = "FIFO";
     private static final String LRU_CACHE = "LRU";
     private static final String TIME_AWARE_CACHE = "TIME";
+    private static final String OFF_HEAP_CACHE = "OFF_HEAP";
+    private static final String TINY_LFU_CACHE = "TINYLFU";
+    private static final String ARC_CACHE = "ARC";
+    private static final String CLOCK_CACHE = "CLOCK";
+    private static final String S3_FIFO_CACHE = "S3FIFO";
+    private static final String COMPACT_LRU_CACHE = "COMPACT_LRU";
+    private static final String SIMULATE_OPTION = "--simulate";
     private static final String DELAY_COMMAND = "delay";
     private static final String GET_COMMAND = "get";
     private static final String PUT_COMMAND = "put";
@@ -25,27 +39,13 @@ public final class Main {
     private static final String TOTAL_HITS = "total_hits";
     private static final String TOTAL_MISSES = "total_misses";
     private static final String TOTAL_UPDATES = "total_updates";
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
 
     private Main() {
 
     }
 
-    /**
-     * Reads all lines from file located at path.
-     *
-     * @param filePath
-     *            file path
-     * @return string with all lines from file
-     */
-    private static List<String> readLines(final String filePath) {
-        try {
-            return Files.readAllLines(Paths.get(filePath));
-        } catch (IOException e) {
-            throw new IllegalArgumentException(
-                    "Invalid file path: " + filePath);
-        }
-    }
-
     /**
      * Creates file cache based on command.
      *
@@ -54,21 +54,82 @@ public final class Main {
      * @return file cache
      */
     private static FileCache createFileCache(final String command) {
-        String[] tokens = command.split(" ");
-        long parameter = Long.parseLong(tokens[1]);
+        String type = token(command, 0);
+        long parameter = Long.parseLong(token(command, 1));
 
-        switch (tokens[0]) {
+        switch (type) {
         case FIFO_CACHE:
             return FileCache.createCacheWithCapacity(FileCache.Strategy.FIFO,
                     (int) parameter);
         case LRU_CACHE:
             return FileCache.createCacheWithCapacity(FileCache.Strategy.LRU,
                     (int) parameter);
+        case OFF_HEAP_CACHE:
+            return FileCache.createOffHeapCache((int) parameter,
+                    Long.parseLong(token(command, 2)));
+        case TINY_LFU_CACHE:
+            return FileCache.createCacheWithCapacity(
+                    FileCache.Strategy.TINYLFU, (int) parameter);
+        case ARC_CACHE:
+            return FileCache.createCacheWithCapacity(FileCache.Strategy.ARC,
+                    (int) parameter);
+        case CLOCK_CACHE:
+            return FileCache.createCacheWithCapacity(
+                    FileCache.Strategy.CLOCK, (int) parameter);
+        case S3_FIFO_CACHE:
+            return FileCache.createCacheWithCapacity(
+                    FileCache.Strategy.S3FIFO, (int) parameter);
+        case COMPACT_LRU_CACHE:
+            return FileCache.createCacheWithCapacity(
+                    FileCache.Strategy.COMPACT_LRU, (int) parameter);
         case TIME_AWARE_CACHE:
             return FileCache.createCacheWithExpiration(parameter);
         default:
             throw new IllegalArgumentException(
-                    "Unsupported cache type: " + tokens[0]);
+                    "Unsupported cache type: " + type);
+        }
+    }
+
+    /**
+     * Gets a token of a command, the tokens being separated by spaces.
+     *
+     * @param command
+     *            the command
+     * @param index
+     *            the index of the token, 0 for the command name
+     * @return the token
+     */
+    private static String token(final String command, final int index) {
+        int start = 0;
+
+        for (int i = 0; i < index; ++i) {
+            start = command.indexOf(' ', start) + 1;
+            if (start == 0) {
+                throw new IllegalArgumentException(
+                        "Missing argument: " + command);
+            }
+        }
+
+        int end = command.indexOf(' ', start);
+        return command.substring(start, (end < 0) ? command.length() : end);
+    }
+
+    /**
+     * Opens the file located at path for reading line by line.
+     *
+     * @param filePath
+     *            file path
+     * @return the reader
+     */
+    private static BufferedReader openCommands(final String filePath) {
+        try {
+            return new BufferedReader(Channels.newReader(
+                    FileChannel.open(Paths.get(filePath)),
+                    StandardCharsets.UTF_8.newDecoder(), -1),
+                    INPUT_BUFFER_SIZE);
+        } catch (IOException | InvalidPathException e) {
+            throw new IllegalArgumentException(
+                    "Invalid file path: " + filePath);
         }
     }
 
@@ -85,93 +146,133 @@ public final class Main {
             throw new IllegalArgumentException("Missing path to test file.");
         }
 
-        List<String> commands = readLines(args[0]);
+        if (args[0].equals(SIMULATE_OPTION)) {
+            Simulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
-        Iterator<String> commandIterator = commands.iterator();
+        /* Results are flushed before every delay and at the end */
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE));
 
-        FileCache cache = createFileCache(commandIterator.next());
+        try (BufferedReader commands = openCommands(args[0])) {
+            String header = commands.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException(
+                        "Empty test file: " + args[0]);
+            }
+
+            run(createFileCache(header), commands, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Runs the commands one by one, as they are read.
+     *
+     * @param cache
+     *            the file cache
+     * @param commands
+     *            the commands after the cache type
+     * @param out
+     *            the output of the commands
+     * @throws IOException
+     *             if the commands could not be read
+     * @throws InterruptedException
+     *             Exception to stop the program
+     */
+    private static void run(final FileCache cache,
+            final BufferedReader commands, final PrintWriter out)
+            throws IOException, InterruptedException {
         KeyStatsListener<String, String> keyStatsListener = new KeyStatsListener<>();
         StatsListener<String, String> statsListener = new StatsListener<>();
 
         cache.addListener(keyStatsListener);
         cache.addListener(statsListener);
 
-        while (commandIterator.hasNext()) {
-            String command = commandIterator.next().trim();
-            String[] tokens = command.split(" ");
+        String line;
+        while ((line = commands.readLine()) != null) {
+            String command = line.trim();
 
             if (command.isEmpty() || command.startsWith("#")) {
                 continue;
             }
 
-            switch (tokens[0]) {
+            switch (token(command, 0)) {
             case DELAY_COMMAND:
-                long parameter = Long.parseLong(tokens[1]);
+                long parameter = Long.parseLong(token(command, 1));
 
+                out.flush();
                 Thread.sleep(parameter);
 
                 break;
             case GET_COMMAND:
-                System.out.println(cache.getFileContents(tokens[1]));
+                out.println(cache.getFileContents(token(command, 1)));
 
                 break;
             case PUT_COMMAND:
-                cache.putFileContents(tokens[1], tokens[2]);
+                cache.putFileContents(token(command, 1), token(command, 2));
 
                 break;
             case TOP_HITS:
-                int topHitsLength = Integer.parseInt(tokens[1]);
+                int topHitsLength = Integer.parseInt(token(command, 1));
 
                 /* Avoid sort differences by printing values instead of keys */
                 for (String key : keyStatsListener
                         .getTopHitKeys(topHitsLength)) {
-                    System.out.print(keyStatsListener.getKeyHits(key) + " ");
+                    out.print(keyStatsListener.getKeyHits(key));
+                    out.print(' ');
                 }
 
-                System.out.println();
+                out.println();
 
                 break;
             case TOP_MISSES:
-                int topMissesLength = Integer.parseInt(tokens[1]);
+                int topMissesLength = Integer.parseInt(token(command, 1));
 
                 /* Avoid sort differences by printing values instead of keys */
                 for (String key : keyStatsListener
                         .getTopMissedKeys(topMissesLength)) {
-                    System.out.print(keyStatsListener.getKeyMisses(key) + " ");
+                    out.print(keyStatsListener.getKeyMisses(key));
+                    out.print(' ');
                 }
 
-                System.out.println();
+                out.println();
 
                 break;
             case TOP_UPDATES:
-                int topUpdatesLength = Integer.parseInt(tokens[1]);
+                int topUpdatesLength = Integer.parseInt(token(command, 1));
 
                 /* Avoid sort differences by printing values instead of keys */
                 for (String key : keyStatsListener
                         .getTopUpdatedKeys(topUpdatesLength)) {
-                    System.out.print(keyStatsListener.getKeyUpdates(key) + " ");
+                    out.print(keyStatsListener.getKeyUpdates(key));
+                    out.print(' ');
                 }
 
-                System.out.println();
+                out.println();
 
                 break;
             case KEY_HITS:
-                System.out.println(keyStatsListener.getKeyHits(tokens[1]));
+                out.println(keyStatsListener.getKeyHits(token(command, 1)));
                 break;
             case KEY_MISSES:
-                System.out.println(keyStatsListener.getKeyMisses(tokens[1]));
+                out.println(keyStatsListener.getKeyMisses(token(command, 1)));
                 break;
             case KEY_UPDATES:
-                System.out.println(keyStatsListener.getKeyUpdates(tokens[1]));
+                out.println(keyStatsListener.getKeyUpdates(token(command, 1)));
                 break;
             case TOTAL_HITS:
-                System.out.println(statsListener.getHits());
+                out.println(statsListener.getHits());
                 break;
             case TOTAL_MISSES:
-                System.out.println(statsListener.getMisses());
+                out.println(statsListener.getMisses());
                 break;
             case TOTAL_UPDATES:
-                System.out.println(statsListener.getUpdates());
+                out.println(statsListener.getUpdates());
                 break;
             default:
                 continue;
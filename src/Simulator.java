@@ -0,0 +1,385 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import cachingSystem.FileCache;
+import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.classes.VirtualTicker;
+import cachingSystem.interfaces.CacheLoader;
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * Replays an access trace against several cache configurations and prints,
+ * for each of them, the hit ratio, the miss ratio, the evictions, the
+ * expirations and the number of requests per second.
+ *
+ * The trace is read as a stream, so it can be larger than the memory, and is
+ * gunzipped if its name ends in ".gz". Every line is either a key, which is
+ * read from the cache, or a command of the test scripts: "get" lines are
+ * replayed, "delay" lines advance a virtual clock instead of sleeping, the
+ * others are ignored. The files are not read from disk, the loader returns the
+ * path as the file contents.
+ *
+ * Every configuration is STRATEGY:capacity, with a FileCache.Strategy, or
+ * TIME:millis for the cache with expiration. OFF_HEAP also takes its memory
+ * budget, as OFF_HEAP:capacity:bytes. They are replayed in parallel. The
+ * entries a TIME cache loses are counted as expirations, the ones the other
+ * caches lose as evictions.
+ */
+public final class Simulator {
+    private static final String TIME_STRATEGY = "TIME";
+    private static final String OFF_HEAP_STRATEGY = "OFF_HEAP";
+    private static final String GET_COMMAND = "get";
+    private static final String DELAY_COMMAND = "delay";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String COMMENT = "#";
+    private static final char SEPARATOR = ':';
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final String RESULTS_FORMAT =
+            "%-12s %14s %12d %10.4f %10.4f %12d %12d %14.0f";
+    private static final String HEADER_FORMAT =
+            "%-12s %14s %12s %10s %10s %12s %12s %14s";
+
+    private Simulator() {
+    }
+
+    /**
+     * Cache configuration and the results of its replay.
+     */
+    static final class Configuration {
+        private final String strategy;
+        private final long parameter;
+        private final long offHeapBytes;
+
+        private long requests;
+        private long misses;
+        private long evictions;
+        private long expirations;
+        private long elapsedNanos;
+
+        private Configuration(final String strategy, final long parameter,
+                final long offHeapBytes) {
+            this.strategy = strategy;
+            this.parameter = parameter;
+            this.offHeapBytes = offHeapBytes;
+        }
+
+        long getRequests() {
+            return requests;
+        }
+
+        long getMisses() {
+            return misses;
+        }
+
+        long getEvictions() {
+            return evictions;
+        }
+
+        long getExpirations() {
+            return expirations;
+        }
+
+        /**
+         * Gets the parameter with its unit: the capacity, the expiration time
+         * of TIME, or the capacity and memory budget of OFF_HEAP.
+         *
+         * @return the parameter
+         */
+        String describeParameter() {
+            if (TIME_STRATEGY.equals(strategy)) {
+                return parameter + "ms";
+            }
+            if (OFF_HEAP_STRATEGY.equals(strategy)) {
+                return parameter + "/" + offHeapBytes + "B";
+            }
+            return Long.toString(parameter);
+        }
+    }
+
+    /**
+     * Listener that counts the misses of a cache.
+     */
+    private static final class MissCounter
+            implements CacheListener<String, String> {
+        private long misses;
+
+        @Override
+        public void onHit(final String key) {
+        }
+
+        @Override
+        public void onMiss(final String key) {
+            ++misses;
+        }
+
+        @Override
+        public void onPut(final String key, final String value) {
+        }
+    }
+
+    /**
+     * Parses a configuration given as STRATEGY:parameter, or
+     * OFF_HEAP:capacity:bytes.
+     *
+     * @param argument
+     *            the command line argument
+     * @return the configuration
+     */
+    static Configuration parseConfiguration(final String argument) {
+        int separator = argument.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: " + argument);
+        }
+
+        String strategy = argument.substring(0, separator);
+        String parameters = argument.substring(separator + 1);
+        long offHeapBytes = 0;
+
+        if (OFF_HEAP_STRATEGY.equals(strategy)) {
+            int bytesSeparator = parameters.indexOf(SEPARATOR);
+            if (bytesSeparator < 0) {
+                throw new IllegalArgumentException(
+                        "Missing memory budget: " + argument);
+            }
+
+            offHeapBytes = Long.parseLong(
+                    parameters.substring(bytesSeparator + 1));
+            parameters = parameters.substring(0, bytesSeparator);
+        }
+
+        long parameter = Long.parseLong(parameters);
+
+        // Fail before replaying anything
+        if (!TIME_STRATEGY.equals(strategy)) {
+            FileCache.Strategy.valueOf(strategy);
+        }
+
+        return new Configuration(strategy, parameter, offHeapBytes);
+    }
+
+    /**
+     * Creates the file cache of a configuration.
+     *
+     * @param configuration
+     *            the configuration
+     * @param ticker
+     *            the clock advanced by the delays of the trace
+     * @return the file cache
+     */
+    private static FileCache createFileCache(final Configuration configuration,
+            final VirtualTicker ticker) {
+        CacheLoader<String, String> loader = path -> path;
+
+        if (TIME_STRATEGY.equals(configuration.strategy)) {
+            return FileCache.createCacheWithExpiration(configuration.parameter,
+                    TimeAwareCache.ExpireMode.AFTER_ACCESS, ticker, loader);
+        }
+
+        if (OFF_HEAP_STRATEGY.equals(configuration.strategy)) {
+            return FileCache.createOffHeapCache((int) configuration.parameter,
+                    configuration.offHeapBytes, loader);
+        }
+
+        return FileCache.createCacheWithCapacity(
+                FileCache.Strategy.valueOf(configuration.strategy),
+                (int) configuration.parameter, loader);
+    }
+
+    /**
+     * Opens the trace for reading, gunzipping it if needed.
+     *
+     * @param trace
+     *            the path to the trace
+     * @return the reader
+     * @throws IOException
+     *             if the trace could not be opened
+     */
+    static BufferedReader openTrace(final Path trace)
+            throws IOException {
+        InputStream input = Files.newInputStream(trace);
+
+        if (trace.toString().endsWith(GZIP_SUFFIX)) {
+            input = new GZIPInputStream(input, BUFFER_SIZE);
+        }
+
+        return new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    /**
+     * Replays the trace file against one configuration and stores the
+     * results in it.
+     *
+     * @param trace
+     *            the path to the trace
+     * @param configuration
+     *            the configuration
+     */
+    private static void replay(final Path trace,
+            final Configuration configuration) {
+        try (BufferedReader reader = openTrace(trace)) {
+            replay(reader, configuration);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replays a trace against one configuration and stores the results in it.
+     *
+     * @param reader
+     *            the trace
+     * @param configuration
+     *            the configuration
+     * @throws IOException
+     *             if the trace could not be read
+     */
+    static void replay(final BufferedReader reader,
+            final Configuration configuration) throws IOException {
+        VirtualTicker ticker = new VirtualTicker();
+        FileCache cache = createFileCache(configuration, ticker);
+        MissCounter counter = new MissCounter();
+        cache.addListener(counter);
+
+        boolean expiring = TIME_STRATEGY.equals(configuration.strategy);
+        long start = System.nanoTime();
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+
+            String key;
+            int space = line.indexOf(' ');
+
+            if (space < 0) {
+                key = line;
+            } else {
+                String command = line.substring(0, space);
+                String argument = line.substring(space + 1).trim();
+
+                if (DELAY_COMMAND.equals(command)) {
+                    ticker.advance(Long.parseLong(argument),
+                            TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                if (!GET_COMMAND.equals(command)) {
+                    continue;
+                }
+                key = argument;
+            }
+
+            long missesBefore = counter.misses;
+            int sizeBefore = cache.size();
+
+            cache.getFileContents(key);
+
+            // A miss adds one entry, anything else was evicted or expired
+            long missed = counter.misses - missesBefore;
+            long removed = sizeBefore + missed - cache.size();
+            if (expiring) {
+                configuration.expirations += removed;
+            } else {
+                configuration.evictions += removed;
+            }
+            ++configuration.requests;
+        }
+
+        configuration.elapsedNanos = System.nanoTime() - start;
+        configuration.misses = counter.misses;
+    }
+
+    /**
+     * Formats the results of a configuration as a row of the table.
+     *
+     * @param configuration
+     *            the replayed configuration
+     * @return the row
+     */
+    static String formatResults(final Configuration configuration) {
+        double requests = Math.max(1, configuration.requests);
+        double seconds = Math.max(1, configuration.elapsedNanos)
+                / NANOS_PER_SECOND;
+
+        return String.format(RESULTS_FORMAT, configuration.strategy,
+                configuration.describeParameter(), configuration.requests,
+                (configuration.requests - configuration.misses) / requests,
+                configuration.misses / requests, configuration.evictions,
+                configuration.expirations, configuration.requests / seconds);
+    }
+
+    /**
+     * Main function.
+     *
+     * @param args
+     *            the path to the trace, followed by the configurations
+     * @throws InterruptedException
+     *             Exception to stop the program
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: Simulator <trace>"
+                    + " <STRATEGY:capacity | TIME:millis>...");
+        }
+
+        final Path trace = Paths.get(args[0]);
+        if (!Files.isReadable(trace)) {
+            throw new IllegalArgumentException("Invalid file path: " + args[0]);
+        }
+
+        List<Configuration> configurations = new ArrayList<>();
+        for (int i = 1; i < args.length; ++i) {
+            configurations.add(parseConfiguration(args[i]));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+                configurations.size(),
+                Runtime.getRuntime().availableProcessors()));
+        List<Future<?>> replays = new ArrayList<>();
+
+        try {
+            for (Configuration configuration : configurations) {
+                replays.add(executor.submit(
+                        () -> replay(trace, configuration)));
+            }
+
+            for (Future<?> replay : replays) {
+                replay.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println(String.format(HEADER_FORMAT, "strategy",
+                "parameter", "requests", "hit ratio", "miss ratio",
+                "evictions", "expirations", "ops/s"));
+        for (Configuration configuration : configurations) {
+            System.out.println(formatResults(configuration));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package cachingSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import cachingSystem.interfaces.CacheLoader;
+
+/**
+ * Loader that keeps the raw bytes of a file. The channel reads directly into
+ * the array that is cached, so there is no intermediate buffer.
+ */
+public final class ByteArrayFileLoader implements CacheLoader<String, byte[]> {
+
+    @Override
+    public byte[] load(final String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(key),
+                StandardOpenOption.READ)) {
+            return toArray(read(channel));
+        }
+    }
+
+    /**
+     * Gets the bytes of a buffer read from its start. The array of the buffer
+     * is returned as is when it is full; a file that shrank while it was read
+     * leaves fewer bytes than the array holds, and those are copied.
+     *
+     * @param buffer
+     *            the buffer, ready to be read
+     * @return the bytes
+     */
+    static byte[] toArray(final ByteBuffer buffer) {
+        byte[] array = buffer.array();
+
+        if (buffer.limit() == array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, buffer.limit());
+    }
+
+    /**
+     * Reads the whole content of a channel in a heap buffer of the exact size
+     * of the file.
+     *
+     * @param channel
+     *            the channel
+     * @return the buffer, ready to be read
+     * @throws IOException
+     *             if the file could not be read or is too large
+     */
+    static ByteBuffer read(final FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + size + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+}
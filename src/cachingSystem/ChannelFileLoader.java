@@ -0,0 +1,58 @@
+package cachingSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import cachingSystem.interfaces.CacheLoader;
+
+/**
+ * Loader that keeps the whole content of a file as a string. The bytes are
+ * read with a FileChannel, or mapped in memory for files of at least
+ * @mapThreshold bytes, and decoded once, without going through a Reader.
+ */
+public final class ChannelFileLoader implements CacheLoader<String, String> {
+
+    private static final long DEFAULT_MAP_THRESHOLD = 1 << 20;
+
+    private final Charset charset;
+    private final long mapThreshold;
+
+    public ChannelFileLoader() {
+        this(StandardCharsets.UTF_8, DEFAULT_MAP_THRESHOLD);
+    }
+
+    /**
+     * Creates a loader decoding files with @charset.
+     *
+     * @param charset
+     *            the charset of the files
+     * @param mapThreshold
+     *            the size from which files are mapped instead of read
+     */
+    public ChannelFileLoader(final Charset charset, final long mapThreshold) {
+        this.charset = charset;
+        this.mapThreshold = mapThreshold;
+    }
+
+    @Override
+    public String load(final String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(key),
+                StandardOpenOption.READ)) {
+            ByteBuffer bytes;
+
+            if (channel.size() >= mapThreshold) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size());
+            } else {
+                bytes = ByteArrayFileLoader.read(channel);
+            }
+
+            return charset.decode(bytes).toString();
+        }
+    }
+}
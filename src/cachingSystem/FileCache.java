@@ -1,31 +1,43 @@
 package cachingSystem;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import cachingSystem.classes.ARCCache;
+import cachingSystem.classes.ClockCache;
+import cachingSystem.classes.CompactLRUCache;
 import cachingSystem.classes.LRUCache;
+import cachingSystem.classes.LoadingCache;
 import cachingSystem.classes.ObservableCache;
 import cachingSystem.classes.ObservableFIFOCache;
+import cachingSystem.classes.OffHeapCache;
+import cachingSystem.classes.S3FIFOCache;
+import cachingSystem.classes.StringCodec;
+import cachingSystem.classes.SystemTicker;
 import cachingSystem.classes.TimeAwareCache;
+import cachingSystem.classes.TinyLFUCache;
+import cachingSystem.interfaces.CacheLoader;
 import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Ticker;
+import cachingSystem.interfaces.ValueCodec;
+import cachingSystem.interfaces.Weigher;
 import dataStructures.classes.Pair;
 import observerPattern.classes.BroadcastListener;
 import observerPattern.interfaces.CacheListener;
 
-public final class FileCache {
+public final class FileCache implements AutoCloseable {
 
     /**
      * Types of cache that have a specific maximum capacity.
      */
     public enum Strategy {
-        FIFO, LRU,
+        FIFO, LRU, OFF_HEAP, TINYLFU, ARC, CLOCK, S3FIFO, COMPACT_LRU,
     }
 
     /**
      * Creates cache with a certain capacity. Its type is defined by strategy.
+     * The OFF_HEAP strategy also needs a memory budget, see
+     * createOffHeapCache.
      *
      * @param strategy
      *            the type
@@ -36,8 +48,164 @@ public final class FileCache {
     public static cachingSystem.FileCache createCacheWithCapacity(
             final cachingSystem.FileCache.Strategy strategy,
             final int capacity) {
+        return createCacheWithCapacity(strategy, capacity,
+                new LineFileLoader());
+    }
+
+    /**
+     * Creates cache with a certain capacity that reads files with @loader.
+     *
+     * @param strategy
+     *            the type
+     * @param capacity
+     *            the maximum capacity
+     * @param loader
+     *            the loader called on a miss
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createCacheWithCapacity(
+            final cachingSystem.FileCache.Strategy strategy,
+            final int capacity, final CacheLoader<String, String> loader) {
+        return new cachingSystem.FileCache(
+                createDataCache(strategy, capacity, new StringCodec(), 0),
+                loader);
+    }
+
+    /**
+     * Creates cache bounded by the total weight of its entries instead of
+     * their number, e.g. by the size of the file contents. When a put goes
+     * over @maxWeight, as many eldest entries as needed are removed.
+     *
+     * @param strategy
+     *            the type, FIFO or LRU
+     * @param maxWeight
+     *            the maximum total weight
+     * @param weigher
+     *            the weight of an entry
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createCacheWithMaxWeight(
+            final cachingSystem.FileCache.Strategy strategy,
+            final long maxWeight, final Weigher<String, String> weigher) {
         ObservableCache<String, String> dataCache;
 
+        switch (strategy) {
+        case FIFO:
+            dataCache = new ObservableFIFOCache<>();
+            break;
+        case LRU:
+            dataCache = new LRUCache<>();
+            break;
+        default:
+            throw new IllegalArgumentException(
+                    "Unsupported weighted cache strategy: " + strategy);
+        }
+
+        dataCache.setWeigher(weigher, maxWeight);
+        return new cachingSystem.FileCache(dataCache, new LineFileLoader());
+    }
+
+    /**
+     * Creates cache that keeps the file contents outside of the Java heap and
+     * removes the least recently used ones when @capacityBytes bytes are
+     * taken.
+     *
+     * @param capacityBytes
+     *            the maximum size of the cached contents, in bytes
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createOffHeapCache(
+            final long capacityBytes) {
+        return new cachingSystem.FileCache(
+                new OffHeapCache<>(new StringCodec(), capacityBytes),
+                new LineFileLoader());
+    }
+
+    /**
+     * Creates cache that keeps the file contents outside of the Java heap,
+     * with at most @capacity files and @capacityBytes bytes of contents.
+     *
+     * @param capacity
+     *            the maximum number of files
+     * @param capacityBytes
+     *            the maximum size of the cached contents, in bytes
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createOffHeapCache(
+            final int capacity, final long capacityBytes) {
+        return createOffHeapCache(capacity, capacityBytes,
+                new LineFileLoader());
+    }
+
+    /**
+     * Creates cache that keeps the file contents outside of the Java heap,
+     * with at most @capacity files and @capacityBytes bytes of contents, that
+     * reads files with @loader.
+     *
+     * @param capacity
+     *            the maximum number of files
+     * @param capacityBytes
+     *            the maximum size of the cached contents, in bytes
+     * @param loader
+     *            the loader called on a miss
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createOffHeapCache(
+            final int capacity, final long capacityBytes,
+            final CacheLoader<String, String> loader) {
+        return new cachingSystem.FileCache(
+                createDataCache(Strategy.OFF_HEAP, capacity, new StringCodec(),
+                        capacityBytes),
+                loader);
+    }
+
+    /**
+     * Creates a loading cache with a certain capacity whose values are not
+     * strings, e.g. byte arrays or mapped buffers of the files. Listeners are
+     * added to the BroadcastListener of the wrapped cache. The OFF_HEAP
+     * strategy needs a codec and is not supported here.
+     *
+     * @param <V>
+     *            the value type
+     * @param strategy
+     *            the type
+     * @param capacity
+     *            the maximum capacity
+     * @param loader
+     *            the loader called on a miss
+     * @return the created cache object
+     */
+    public static <V> LoadingCache<String, V> createLoadingCacheWithCapacity(
+            final cachingSystem.FileCache.Strategy strategy,
+            final int capacity, final CacheLoader<String, V> loader) {
+        ObservableCache<String, V> dataCache = createDataCache(strategy,
+                capacity, null, 0);
+
+        dataCache.setCacheListener(new BroadcastListener<String, V>());
+        return new LoadingCache<>(dataCache, loader);
+    }
+
+    /**
+     * Creates the cache holding the values for a strategy.
+     *
+     * @param <V>
+     *            the value type
+     * @param strategy
+     *            the type
+     * @param capacity
+     *            the maximum capacity
+     * @param codec
+     *            the codec of the values, for off heap storage
+     * @param offHeapBytes
+     *            the memory for off heap storage, in bytes
+     * @return the created cache
+     */
+    private static <V> ObservableCache<String, V> createDataCache(
+            final cachingSystem.FileCache.Strategy strategy,
+            final int capacity, final ValueCodec<V> codec,
+            final long offHeapBytes) {
+        ObservableCache<String, V> dataCache;
+
         switch (strategy) {
 
         case FIFO:
@@ -46,20 +214,53 @@ public final class FileCache {
         case LRU:
             dataCache = new LRUCache<>();
             break;
+        case OFF_HEAP:
+            if (codec == null || offHeapBytes <= 0) {
+                throw new IllegalArgumentException("Strategy needs a value"
+                        + " codec and a memory budget: " + strategy);
+            }
+            dataCache = new OffHeapCache<>(codec, offHeapBytes);
+            break;
+        case TINYLFU:
+            dataCache = new TinyLFUCache<>(capacity);
+            break;
+        case ARC:
+            dataCache = new ARCCache<>(capacity);
+            break;
+        case CLOCK:
+            dataCache = new ClockCache<>(capacity);
+            break;
+        case S3FIFO:
+            dataCache = new S3FIFOCache<>(capacity);
+            break;
+        case COMPACT_LRU:
+            dataCache = new CompactLRUCache<>();
+            break;
         default:
             throw new IllegalArgumentException(
                     "Unsupported cache strategy: " + strategy);
         }
 
-        dataCache.setStalePolicy(new CacheStalePolicy<String, String>() {
+        dataCache.setStalePolicy(new CacheStalePolicy<String, V>() {
             @Override
             public boolean shouldRemoveEldestEntry(
-                    final Pair<String, String> entry) {
+                    final Pair<String, V> entry) {
                 return dataCache.size() > capacity;
             }
+
+            @Override
+            public boolean shouldRemoveEldestEntry(final String key,
+                    final V value, final int size, final long weight) {
+                return size > capacity;
+            }
+
+            @Override
+            public boolean usesEntryValue() {
+                return false;
+            }
         });
 
-        return new cachingSystem.FileCache(dataCache);
+        return dataCache;
     }
 
     /**
@@ -71,90 +272,231 @@ public final class FileCache {
      */
     public static cachingSystem.FileCache createCacheWithExpiration(
             final long millisToExpire) {
-        TimeAwareCache<String, String> dataCache = new TimeAwareCache<>();
+        return createCacheWithExpiration(millisToExpire,
+                TimeAwareCache.ExpireMode.AFTER_ACCESS);
+    }
+
+    /**
+     * Creates cache that removes elements a certain time after they were
+     * written or accessed.
+     *
+     * @param millisToExpire
+     *            the default time after which an entry is deleted
+     * @param expireMode
+     *            the event that restarts the expiration time
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createCacheWithExpiration(
+            final long millisToExpire,
+            final TimeAwareCache.ExpireMode expireMode) {
+        return createCacheWithExpiration(millisToExpire, expireMode,
+                new SystemTicker());
+    }
+
+    /**
+     * Creates cache that removes elements a certain time after they were
+     * written or accessed, measuring time with @ticker.
+     *
+     * @param millisToExpire
+     *            the default time after which an entry is deleted
+     * @param expireMode
+     *            the event that restarts the expiration time
+     * @param ticker
+     *            the time source
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createCacheWithExpiration(
+            final long millisToExpire,
+            final TimeAwareCache.ExpireMode expireMode, final Ticker ticker) {
+        return createCacheWithExpiration(millisToExpire, expireMode, ticker,
+                new LineFileLoader());
+    }
+
+    /**
+     * Creates cache that removes elements a certain time after they were
+     * written or accessed and reads files with @loader.
+     *
+     * @param millisToExpire
+     *            the default time after which an entry is deleted
+     * @param expireMode
+     *            the event that restarts the expiration time
+     * @param ticker
+     *            the time source
+     * @param loader
+     *            the loader called on a miss
+     * @return the created cache object
+     */
+    public static cachingSystem.FileCache createCacheWithExpiration(
+            final long millisToExpire,
+            final TimeAwareCache.ExpireMode expireMode, final Ticker ticker,
+            final CacheLoader<String, String> loader) {
+        TimeAwareCache<String, String> dataCache = new TimeAwareCache<>(
+                ticker);
 
         dataCache.setExpirePolicy(millisToExpire);
+        dataCache.setExpireMode(expireMode);
 
-        return new cachingSystem.FileCache(dataCache);
+        return new cachingSystem.FileCache(dataCache, loader);
     }
 
     /**
      * Constructs a new FileCache.
      *
      * @param dataCache
+     * @param loader
      */
-    private FileCache(final ObservableCache<String, String> dataCache) {
+    private FileCache(final ObservableCache<String, String> dataCache,
+            final CacheLoader<String, String> loader) {
         this.dataCache = dataCache;
         this.broadcastListener = new BroadcastListener<>();
+        this.loadingCache = new LoadingCache<>(dataCache, loader);
 
         this.dataCache.setCacheListener(broadcastListener);
+    }
+
+    /**
+     * Gets content from file located at path from cache. On a miss the file
+     * is read once, even if several threads ask for it at the same time.
+     *
+     * @param path
+     *            the path to the file
+     * @return content of file
+     * @throws java.io.UncheckedIOException
+     *             if the file could not be read
+     */
+    public String getFileContents(final String path) {
+        return loadingCache.get(path);
+    }
+
+    /**
+     * Gets content from file located at path from cache without blocking. A
+     * hit completes immediately, a miss reads the file on the loader executor.
+     *
+     * @param path
+     *            the path to the file
+     * @return the future content of file
+     */
+    public CompletableFuture<String> getFileContentsAsync(final String path) {
+        return loadingCache.getAsync(path);
+    }
+
+    /**
+     * Set the executor that reads files for asynchronous gets.
+     *
+     * @param executor
+     *            the executor
+     */
+    public void setLoaderExecutor(final Executor executor) {
+        loadingCache.setExecutor(executor);
+    }
+
+    /**
+     * Puts content from file located at path in cache.
+     *
+     * @param path
+     *            path to file
+     * @param contents
+     */
+    public void putFileContents(final String path, final String contents) {
+        loadingCache.put(path, contents);
+    }
 
-        broadcastListener.addListener(createCacheListener());
+    /**
+     * Puts content from file located at path in cache with its own expiration
+     * time. Only caches created with an expiration support this operation.
+     *
+     * @param path
+     *            path to file
+     * @param contents
+     *            content of file
+     * @param millisToExpire
+     *            the time after which the entry is deleted
+     */
+    public void putFileContents(final String path, final String contents,
+            final long millisToExpire) {
+        if (!(dataCache instanceof TimeAwareCache)) {
+            throw new UnsupportedOperationException(
+                    "Cache does not support expiration");
+        }
+
+        synchronized (dataCache) {
+            ((TimeAwareCache<String, String>) dataCache).put(path, contents,
+                    millisToExpire);
+        }
     }
 
     /**
-     * Creates a listener that loads a file in memory on a cache miss.
+     * Starts watching the files that are put in the cache from now on. When
+     * a file is deleted its entry is removed; when it is modified the entry
+     * is removed or, if @refresh is true, loaded again. Like addListener, it
+     * should be called before the cache is shared between threads.
      *
-     * @return the created cache listener
+     * @param refresh
+     *            true to reload modified files instead of removing them
      */
-    private CacheListener<String, String> createCacheListener() {
-        return new CacheListener<String, String>() {
+    public synchronized void watchFiles(final boolean refresh) {
+        if (fileWatcher != null) {
+            return;
+        }
+
+        fileWatcher = new FileWatcher((path, exists) -> {
+            if (exists && refresh) {
+                loadingCache.refresh(path);
+            } else {
+                loadingCache.invalidate(path);
+            }
+        }, loadingCache::containsKey);
 
+        if (watchListenerAdded) {
+            return;
+        }
+
+        watchListenerAdded = true;
+        broadcastListener.addListener(new CacheListener<String, String>() {
             @Override
             public void onHit(final String key) {
             }
 
             @Override
             public void onMiss(final String key) {
-
-                try {
-                    File input = new File(key);
-                    BufferedReader reader = new BufferedReader(
-                            new FileReader(input));
-                    String value = reader.readLine();
-                    dataCache.put(key, value);
-                    reader.close();
-
-                } catch (FileNotFoundException e) {
-                    System.out.println("Error! File not found!");
-                    e.printStackTrace();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-
             }
 
             @Override
             public void onPut(final String key, final String value) {
+                FileWatcher watcher = fileWatcher;
+                if (watcher != null) {
+                    watcher.watch(key);
+                }
             }
-        };
+        });
     }
 
     /**
-     * Gets content from file located at path from cache.
-     *
-     * @param path
-     *            the path to the file
-     * @return content of file
+     * Stops watching the cached files.
      */
-    public String getFileContents(final String path) {
-        String fileContents;
+    public synchronized void stopWatchingFiles() {
+        if (fileWatcher != null) {
+            fileWatcher.close();
+            fileWatcher = null;
+        }
+    }
 
-        do {
-            fileContents = dataCache.get(path);
-        } while (fileContents == null);
-        return fileContents;
+    /**
+     * Stops watching the files and shuts down the default loader pool.
+     */
+    @Override
+    public void close() {
+        stopWatchingFiles();
+        loadingCache.close();
     }
 
     /**
-     * Puts content from file located at path in cache.
+     * Gets the number of files in the cache.
      *
-     * @param path
-     *            path to file
-     * @param contents
+     * @return the number of cached files
      */
-    public void putFileContents(final String path, final String contents) {
-        dataCache.put(path, contents);
+    public int size() {
+        return loadingCache.size();
     }
 
     /**
@@ -167,6 +509,20 @@ public final class FileCache {
         broadcastListener.addListener(listener);
     }
 
+    /**
+     * Adds a listener that is notified on a separate thread, so it does not
+     * slow down the reads of the cache.
+     *
+     * @param listener
+     *            listener to be added
+     */
+    public void addAsyncListener(final CacheListener<String, String> listener) {
+        broadcastListener.addAsyncListener(listener);
+    }
+
     private ObservableCache<String, String> dataCache;
     private BroadcastListener<String, String> broadcastListener;
+    private LoadingCache<String, String> loadingCache;
+    private volatile FileWatcher fileWatcher;
+    private boolean watchListenerAdded;
 }
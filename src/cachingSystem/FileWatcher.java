@@ -0,0 +1,250 @@
+package cachingSystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Watches the directories of cached files and reports the cache keys of the
+ * files that were modified or deleted. Every directory is registered once,
+ * the first time one of its files is watched, and the events are handled by a
+ * daemon thread.
+ *
+ * Keys that left the cache are not reported and stop being watched when their
+ * file changes. They are also swept out once the number of watched keys has
+ * doubled since the last sweep, so the keys kept stay proportional to the
+ * size of the cache.
+ */
+final class FileWatcher implements AutoCloseable {
+
+    private static final int MIN_SWEEP_THRESHOLD = 1024;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories;
+    private final Set<Path> watchedDirectories;
+    private final Map<Path, Set<String>> keysByFile;
+    private final BiConsumer<String, Boolean> onChange;
+    private final Predicate<String> isCached;
+    private final AtomicInteger watchedKeys;
+    private final Thread thread;
+    private volatile int sweepThreshold;
+
+    /**
+     * Creates the watcher and starts its thread.
+     *
+     * @param onChange
+     *            called with the cache key and whether the file still exists
+     * @param isCached
+     *            tells whether a key is still in the cache
+     */
+    FileWatcher(final BiConsumer<String, Boolean> onChange,
+            final Predicate<String> isCached) {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.directories = new ConcurrentHashMap<WatchKey, Path>();
+        this.watchedDirectories = ConcurrentHashMap.newKeySet();
+        this.keysByFile = new ConcurrentHashMap<Path, Set<String>>();
+        this.onChange = onChange;
+        this.isCached = isCached;
+        this.watchedKeys = new AtomicInteger();
+        this.sweepThreshold = MIN_SWEEP_THRESHOLD;
+
+        thread = new Thread(this::processEvents, "file-cache-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts watching the file of a cache key.
+     *
+     * @param key
+     *            the cache key, a path to a file
+     */
+    void watch(final String key) {
+        Path file = Paths.get(key).toAbsolutePath().normalize();
+        addKey(file, key);
+
+        if (watchedKeys.get() > sweepThreshold) {
+            sweep();
+        }
+
+        Path directory = file.getParent();
+        if (directory == null || !watchedDirectories.add(directory)) {
+            return;
+        }
+
+        try {
+            directories.put(directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE), directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            // Not watchable, the entry only goes stale by eviction
+            watchedDirectories.remove(directory);
+        }
+    }
+
+    /**
+     * Adds a key to the keys of its file.
+     *
+     * @param file
+     *            the absolute path of the file
+     * @param key
+     *            the cache key
+     */
+    private void addKey(final Path file, final String key) {
+        keysByFile.compute(file, (f, keys) -> {
+            Set<String> fileKeys = (keys == null)
+                    ? ConcurrentHashMap.newKeySet() : keys;
+            if (fileKeys.add(key)) {
+                watchedKeys.incrementAndGet();
+            }
+            return fileKeys;
+        });
+    }
+
+    /**
+     * Stops watching a key that is not in the cache any more.
+     *
+     * @param file
+     *            the absolute path of the file
+     * @param key
+     *            the cache key
+     */
+    private void unwatch(final Path file, final String key) {
+        keysByFile.computeIfPresent(file, (f, keys) -> {
+            if (keys.remove(key)) {
+                watchedKeys.decrementAndGet();
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+
+        // Put again after it was found missing, keep watching it
+        if (isCached.test(key)) {
+            addKey(file, key);
+        }
+    }
+
+    /**
+     * Stops watching all the keys that are not in the cache any more.
+     */
+    private synchronized void sweep() {
+        if (watchedKeys.get() <= sweepThreshold) {
+            return;
+        }
+
+        for (Map.Entry<Path, Set<String>> entry : keysByFile.entrySet()) {
+            for (String key : entry.getValue()) {
+                if (!isCached.test(key)) {
+                    unwatch(entry.getKey(), key);
+                }
+            }
+        }
+
+        sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD,
+                2 * watchedKeys.get());
+    }
+
+    /**
+     * Reports the changed files until the watcher is closed.
+     */
+    private void processEvents() {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = directories.get(watchKey);
+            if (directory == null) {
+                watchKey.cancel();
+                continue;
+            }
+
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                // Lost events, every file of the directory may have changed
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    for (Path file : keysByFile.keySet()) {
+                        if (directory.equals(file.getParent())) {
+                            notifyChange(file);
+                        }
+                    }
+                    continue;
+                }
+
+                notifyChange(directory.resolve((Path) event.context()));
+            }
+
+            if (!watchKey.reset()) {
+                watchedDirectories.remove(directories.remove(watchKey));
+            }
+        }
+    }
+
+    /**
+     * Reports every cache key of a changed file that is still in the cache.
+     *
+     * @param file
+     *            the absolute path of the file
+     */
+    private void notifyChange(final Path file) {
+        Set<String> keys = keysByFile.get(file);
+        if (keys == null) {
+            return;
+        }
+
+        boolean exists = file.toFile().exists();
+
+        for (String key : keys) {
+            if (!isCached.test(key)) {
+                unwatch(file, key);
+                continue;
+            }
+
+            onChange.accept(key, exists);
+            if (!exists) {
+                unwatch(file, key);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of watched cache keys.
+     *
+     * @return the number of keys
+     */
+    int watchedKeys() {
+        return watchedKeys.get();
+    }
+
+    /**
+     * Stops the watcher thread and releases the watch service.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package cachingSystem;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import cachingSystem.interfaces.CacheLoader;
+
+/**
+ * Loader that keeps the first line of a file. This is the default loader of
+ * the FileCache.
+ */
+public final class LineFileLoader implements CacheLoader<String, String> {
+
+    @Override
+    public String load(final String key) throws IOException {
+        File input = new File(key);
+
+        try (BufferedReader reader = new BufferedReader(
+                new FileReader(input))) {
+            String value = reader.readLine();
+
+            // Empty file
+            return (value == null) ? "" : value;
+        }
+    }
+}
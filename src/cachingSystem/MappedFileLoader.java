@@ -0,0 +1,27 @@
+package cachingSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import cachingSystem.interfaces.CacheLoader;
+
+/**
+ * Loader that maps a file in memory and keeps a read only view of it. Nothing
+ * is copied on the heap; the pages are loaded by the operating system when the
+ * buffer is read and the mapping lives as long as the cached buffer. Readers
+ * should work on a duplicate() so they do not move the cached position.
+ */
+public final class MappedFileLoader implements CacheLoader<String, ByteBuffer> {
+
+    @Override
+    public ByteBuffer load(final String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(key),
+                StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package cachingSystem.classes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import dataStructures.classes.DoublyLinkedList;
+import dataStructures.classes.Node;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+/**
+ * Adaptive Replacement Cache. Entries seen once live in T1 and entries seen
+ * at least twice live in T2; both are LRU lists. The keys recently evicted
+ * from them are remembered, without values, in the ghost lists B1 and B2.
+ *
+ * A put of a key found in B1 means T1 was too small, so the target size of
+ * T1 grows; a put of a key found in B2 makes it shrink. The cache therefore
+ * moves between recency and frequency depending on the access pattern.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class ARCCache<K, V> extends ObservableCache<K, V> {
+
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+    private static final int LISTS = 4;
+
+    private final int capacity;
+    private final Map<K, ListNode<K, V>> data;
+    private final DoublyLinkedList<K, V>[] lists;
+    private int targetT1;
+
+    private BroadcastListener<K, V> bcstListener;
+
+    /**
+     * Creates a cache holding at most @capacity entries.
+     *
+     * @param capacity
+     *            the maximum capacity
+     */
+    @SuppressWarnings("unchecked")
+    public ARCCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+        data = new HashMap<K, ListNode<K, V>>();
+        lists = (DoublyLinkedList<K, V>[]) new DoublyLinkedList<?, ?>[LISTS];
+        for (int i = 0; i < LISTS; ++i) {
+            lists[i] = new DoublyLinkedList<K, V>();
+        }
+    }
+
+    /**
+     * Gets the target size of T1, adapted to the workload.
+     *
+     * @return the target size
+     */
+    public final int getTargetT1() {
+        return targetT1;
+    }
+
+    /**
+     * Gets the size of one of the lists.
+     *
+     * @param list
+     *            the list
+     * @return the size
+     */
+    private int sizeOf(final int list) {
+        return lists[list].size();
+    }
+
+    /**
+     * Moves a node to the most recent position of a list.
+     *
+     * @param node
+     *            the node
+     * @param list
+     *            the destination list
+     */
+    private void moveTo(final ListNode<K, V> node, final int list) {
+        lists[node.list].remove(node);
+        node.list = list;
+        lists[list].add(node);
+    }
+
+    /**
+     * Forgets the least recent key of a ghost list.
+     *
+     * @param list
+     *            the ghost list
+     */
+    private void dropLast(final int list) {
+        Node<K, V> last = lists[list].getTail();
+        if (last != null) {
+            lists[list].removeLast();
+            data.remove(last.getKey());
+        }
+    }
+
+    /**
+     * Tells which resident list gives up its least recent entry.
+     *
+     * @param inB2
+     *            true if the key being inserted was found in B2
+     * @return T1 or T2
+     */
+    private int replacementList(final boolean inB2) {
+        int sizeT1 = sizeOf(T1);
+
+        if (sizeT1 > 0 && (sizeT1 > targetT1
+                || (inB2 && sizeT1 == targetT1) || sizeOf(T2) == 0)) {
+            return T1;
+        }
+        return T2;
+    }
+
+    /**
+     * Moves the least recent entry of T1 or T2 to its ghost list, if the
+     * cache is full.
+     *
+     * @param inB2
+     *            true if the key being inserted was found in B2
+     */
+    private void replace(final boolean inB2) {
+        if (sizeOf(T1) + sizeOf(T2) < capacity) {
+            return;
+        }
+
+        int list = replacementList(inB2);
+        ListNode<K, V> last = (ListNode<K, V>) lists[list].getTail();
+
+        last.setValue(null);
+        moveTo(last, (list == T1) ? B1 : B2);
+    }
+
+    @Override
+    public final V get(final K key) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        ListNode<K, V> node = data.get(key);
+
+        // Not found, ghost keys have no value
+        if (node == null || node.list == B1 || node.list == B2) {
+            bcstListener.onMiss(key);
+            return null;
+        }
+
+        // Seen at least twice
+        moveTo(node, T2);
+        bcstListener.onHit(key);
+        return node.getValue();
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        ListNode<K, V> node = data.get(key);
+
+        if (node != null && (node.list == T1 || node.list == T2)) {
+            // Existing slot
+            node.setValue(value);
+            moveTo(node, T2);
+        } else if (node != null && node.list == B1) {
+            // T1 evicted it too early, favour recency
+            targetT1 = Math.min(capacity,
+                    targetT1 + Math.max(sizeOf(B2) / sizeOf(B1), 1));
+            replace(false);
+            node.setValue(value);
+            moveTo(node, T2);
+        } else if (node != null) {
+            // T2 evicted it too early, favour frequency
+            targetT1 = Math.max(0,
+                    targetT1 - Math.max(sizeOf(B1) / sizeOf(B2), 1));
+            replace(true);
+            node.setValue(value);
+            moveTo(node, T2);
+        } else {
+            // New slot
+            insertNew(key, value);
+        }
+
+        bcstListener.onPut(key, value);
+        clearStaleEntries();
+    }
+
+    /**
+     * Makes room for a key seen for the first time and adds it to T1.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    private void insertNew(final K key, final V value) {
+        int sizeL1 = sizeOf(T1) + sizeOf(B1);
+        int total = sizeL1 + sizeOf(T2) + sizeOf(B2);
+
+        if (sizeL1 >= capacity) {
+            if (sizeOf(T1) < capacity) {
+                dropLast(B1);
+                replace(false);
+            } else {
+                // T1 alone fills the cache, evict without remembering
+                ListNode<K, V> last = (ListNode<K, V>) lists[T1].getTail();
+                lists[T1].removeLast();
+                data.remove(last.getKey());
+            }
+        } else if (total >= capacity) {
+            if (total >= 2 * capacity) {
+                dropLast(B2);
+            }
+            replace(false);
+        }
+
+        ListNode<K, V> node = new ListNode<K, V>(key, value);
+        lists[T1].add(node);
+        data.put(key, node);
+    }
+
+    @Override
+    public final int size() {
+        return sizeOf(T1) + sizeOf(T2);
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        ListNode<K, V> node = data.get(key);
+
+        // Ghost keys have no value
+        return node != null && node.list != B1 && node.list != B2;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public final V remove(final K key) {
+        ListNode<K, V> node = data.get(key);
+        if (node == null || node.list == B1 || node.list == B2) {
+            return null;
+        }
+
+        lists[node.list].remove(node);
+        data.remove(key);
+        return node.getValue();
+    }
+
+    @Override
+    public final void clearAll() {
+        data.clear();
+        for (DoublyLinkedList<K, V> list : lists) {
+            list.removeAll();
+        }
+        targetT1 = 0;
+    }
+
+    /**
+     * The eldest entry is the one the next replacement would move to a ghost
+     * list.
+     *
+     * @return the eldest entry
+     */
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        Node<K, V> eldest = lists[replacementList(false)].getTail();
+        return new Pair<K, V>(eldest.getKey(), eldest.getValue());
+    }
+
+    /**
+     * List node that knows which of the four lists holds it.
+     *
+     * @param <K>
+     *            the key type
+     * @param <V>
+     *            the value type
+     */
+    private static final class ListNode<K, V> extends Node<K, V> {
+        private int list;
+
+        private ListNode(final K key, final V value) {
+            super(key, value, null, null);
+            this.list = T1;
+        }
+    }
+}
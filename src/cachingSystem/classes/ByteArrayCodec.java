@@ -0,0 +1,19 @@
+package cachingSystem.classes;
+
+import cachingSystem.interfaces.ValueCodec;
+
+/**
+ * Codec for values that already are byte arrays.
+ */
+public final class ByteArrayCodec implements ValueCodec<byte[]> {
+
+    @Override
+    public byte[] encode(final byte[] value) {
+        return value;
+    }
+
+    @Override
+    public byte[] decode(final byte[] bytes) {
+        return bytes;
+    }
+}
@@ -0,0 +1,282 @@
+package cachingSystem.classes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+/**
+ * Second chance (CLOCK) cache. The entries are kept in a fixed size ring of
+ * slots, each with a reference bit. A hit only sets the bit of the slot, so
+ * reads do not reorder anything. When a new key needs a slot and the ring is
+ * full, the clock hand sweeps the ring: referenced slots lose their bit and
+ * are skipped, the first slot without it is evicted.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class ClockCache<K, V> extends ObservableCache<K, V> {
+
+    private final K[] keys;
+    private final V[] values;
+    private final boolean[] referenced;
+    private final Map<K, Integer> index;
+
+    // Boxed slot numbers, shared so that puts do not box them again
+    private final Integer[] slots;
+
+    // Slots emptied by remove, reused before the hand is moved
+    private final int[] freeSlots;
+    private int freeCount;
+    private int unusedSlot;
+
+    private int hand;
+    private int size;
+
+    private BroadcastListener<K, V> bcstListener;
+
+    /**
+     * Creates a cache holding at most @capacity entries.
+     *
+     * @param capacity
+     *            the number of slots in the ring
+     */
+    @SuppressWarnings("unchecked")
+    public ClockCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        referenced = new boolean[capacity];
+        index = new HashMap<K, Integer>();
+        freeSlots = new int[capacity];
+
+        slots = new Integer[capacity];
+        for (int i = 0; i < capacity; ++i) {
+            slots[i] = i;
+        }
+    }
+
+    /**
+     * Gets the number of slots in the ring.
+     *
+     * @return the capacity
+     */
+    public final int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Takes an empty slot, or evicts the entry under the clock hand if the ring
+     * is full.
+     *
+     * @return the slot
+     */
+    private int takeSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (unusedSlot < keys.length) {
+            return unusedSlot++;
+        }
+
+        // Give a second chance to every referenced slot on the way
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % keys.length;
+        }
+
+        int slot = hand;
+        hand = (hand + 1) % keys.length;
+
+        index.remove(keys[slot]);
+        clearSlot(slot);
+        return slot;
+    }
+
+    /**
+     * Empties a slot.
+     *
+     * @param slot
+     *            the slot
+     */
+    private void clearSlot(final int slot) {
+        keys[slot] = null;
+        values[slot] = null;
+        referenced[slot] = false;
+        --size;
+    }
+
+    @Override
+    public final V get(final K key) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        Integer slot = index.get(key);
+
+        // Not found
+        if (slot == null) {
+            bcstListener.onMiss(key);
+            return null;
+        }
+
+        referenced[slot] = true;
+        bcstListener.onHit(key);
+        return values[slot];
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        Integer slot = index.get(key);
+
+        if (slot != null) {
+            // Existing slot
+            values[slot] = value;
+            referenced[slot] = true;
+        } else {
+            // New slot, starts without a second chance
+            int newSlot = takeSlot();
+            keys[newSlot] = key;
+            values[newSlot] = value;
+            index.put(key, slots[newSlot]);
+            ++size;
+        }
+
+        bcstListener.onPut(key, value);
+        clearStaleEntries();
+    }
+
+    /**
+     * Removes entries while the stale policy asks for it. The policy is asked
+     * about the entry the sweep would evict, found without touching the
+     * reference bits, so a policy that keeps the entry leaves the ring as it
+     * was. Only when it asks for the eviction does the hand sweep to that
+     * entry, like for a new key in a full ring.
+     */
+    @Override
+    public final void clearStaleEntries() {
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        if (stalePolicy == null) {
+            return;
+        }
+
+        while (size > 0) {
+            int victim = victimSlot();
+
+            if (!stalePolicy.shouldRemoveEldestEntry(keys[victim],
+                    values[victim], size, getTotalWeight())) {
+                return;
+            }
+
+            // Give a second chance to every referenced slot on the way; if all
+            // were referenced, the sweep went once around the whole ring
+            if (referenced[victim]) {
+                Arrays.fill(referenced, false);
+            }
+            while (hand != victim) {
+                referenced[hand] = false;
+                hand = (hand + 1) % keys.length;
+            }
+
+            index.remove(keys[hand]);
+            clearSlot(hand);
+            freeSlots[freeCount++] = hand;
+            hand = (hand + 1) % keys.length;
+        }
+    }
+
+    /**
+     * Finds the slot the sweep would evict: the first unreferenced entry from
+     * the hand onwards, or the first entry from the hand if all of them are
+     * referenced. The reference bits are left untouched.
+     *
+     * @return the slot, or -1 if the cache is empty
+     */
+    private int victimSlot() {
+        int first = -1;
+
+        for (int i = 0; i < keys.length; ++i) {
+            int slot = (hand + i) % keys.length;
+            if (keys[slot] == null) {
+                continue;
+            }
+
+            if (!referenced[slot]) {
+                return slot;
+            }
+            if (first < 0) {
+                first = slot;
+            }
+        }
+
+        return first;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public final V remove(final K key) {
+        Integer slot = index.remove(key);
+        if (slot == null) {
+            return null;
+        }
+
+        V value = values[slot];
+        clearSlot(slot);
+        freeSlots[freeCount++] = slot;
+        return value;
+    }
+
+    @Override
+    public final void clearAll() {
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = null;
+            values[i] = null;
+            referenced[i] = false;
+        }
+
+        index.clear();
+        freeCount = 0;
+        unusedSlot = 0;
+        hand = 0;
+        size = 0;
+    }
+
+    /**
+     * The eldest entry is the one the clock hand would evict next: the first
+     * unreferenced entry from the hand onwards, or the entry under the hand if
+     * all of them are referenced. The reference bits are left untouched.
+     *
+     * @return the eldest entry
+     */
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        if (size == 0) {
+            return null;
+        }
+
+        int slot = victimSlot();
+        return new Pair<K, V>(keys[slot], values[slot]);
+    }
+}
@@ -0,0 +1,60 @@
+package cachingSystem.classes;
+
+import java.util.concurrent.TimeUnit;
+
+import cachingSystem.interfaces.Ticker;
+
+/**
+ * Ticker that returns a cached time updated by a background thread. Reading it
+ * is a single volatile load, at the cost of a resolution of @resolutionMillis
+ * milliseconds.
+ */
+public final class CoarseTicker implements Ticker, AutoCloseable {
+
+    private volatile long nanos;
+    private final Thread updater;
+
+    /**
+     * Creates the ticker and starts the daemon thread that updates it.
+     *
+     * @param resolutionMillis
+     *            the time between two updates, in milliseconds
+     */
+    public CoarseTicker(final long resolutionMillis) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid resolution: " + resolutionMillis);
+        }
+
+        nanos = System.nanoTime();
+        updater = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        TimeUnit.MILLISECONDS.sleep(resolutionMillis);
+                        nanos = System.nanoTime();
+                    }
+                } catch (InterruptedException e) {
+                    // Stopped by close
+                }
+            }
+        }, "coarse-ticker");
+
+        updater.setDaemon(true);
+        updater.start();
+    }
+
+    @Override
+    public long read() {
+        return nanos;
+    }
+
+    /**
+     * Stops the thread that updates the ticker.
+     */
+    @Override
+    public void close() {
+        updater.interrupt();
+    }
+}
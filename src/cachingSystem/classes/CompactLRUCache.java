@@ -0,0 +1,403 @@
+package cachingSystem.classes;
+
+import java.util.Arrays;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+/**
+ * LRU cache with the same behaviour as the LRUCache, but without an object per
+ * entry. Keys, values and hashes are kept in parallel arrays indexed by an
+ * entry number, and the recency list links entries by their numbers in two int
+ * arrays. The key index is an open addressing table of entry numbers with
+ * linear probing.
+ *
+ * The arrays double when they are full, so the cache can be bounded by a stale
+ * policy like the other caches.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class CompactLRUCache<K, V> extends ObservableCache<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int HASH_MIX = 0x9E3779B9;
+    private static final int HASH_SHIFT = 16;
+    private static final int NIL = -1;
+
+    private K[] keys;
+    private V[] values;
+    private int[] hashes;
+    private int[] prev;
+    private int[] next;
+
+    // Entry numbers plus one, zero marks an empty bucket
+    private int[] table;
+    private int mask;
+
+    private int head;
+    private int tail;
+    private int size;
+    private int freeHead;
+    private int unusedEntry;
+
+    private BroadcastListener<K, V> bcstListener;
+
+    public CompactLRUCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache with room for @initialCapacity entries before its
+     * arrays grow.
+     *
+     * @param initialCapacity
+     *            the initial number of entries
+     */
+    public CompactLRUCache(final int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid capacity: " + initialCapacity);
+        }
+
+        allocate(Math.max(2, Integer.highestOneBit(initialCapacity - 1) << 1));
+        clearAll();
+    }
+
+    /**
+     * Creates empty arrays for @capacity entries.
+     *
+     * @param capacity
+     *            the number of entries, a power of two
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(final int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        hashes = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+
+        // At most half of the buckets are used
+        table = new int[2 * capacity];
+        mask = table.length - 1;
+    }
+
+    /**
+     * Doubles the arrays and rebuilds the index.
+     */
+    private void grow() {
+        int capacity = 2 * keys.length;
+
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+
+        table = new int[2 * capacity];
+        mask = table.length - 1;
+        for (int entry = head; entry != NIL; entry = next[entry]) {
+            int bucket = hashes[entry] & mask;
+            while (table[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            table[bucket] = entry + 1;
+        }
+    }
+
+    /**
+     * Spreads the hash code of a key over all the bits.
+     *
+     * @param key
+     *            the key
+     * @return the hash
+     */
+    private static int hash(final Object key) {
+        int h = key.hashCode() * HASH_MIX;
+        return h ^ (h >>> HASH_SHIFT);
+    }
+
+    /**
+     * Finds the bucket that holds a key.
+     *
+     * @param key
+     *            the key
+     * @param hash
+     *            the hash of the key
+     * @return the bucket, or NIL if the key is not in the cache
+     */
+    private int findBucket(final K key, final int hash) {
+        int bucket = hash & mask;
+
+        while (table[bucket] != 0) {
+            int entry = table[bucket] - 1;
+            if (hashes[entry] == hash && keys[entry].equals(key)) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+
+        return NIL;
+    }
+
+    /**
+     * Finds the bucket that holds an entry.
+     *
+     * @param entry
+     *            the entry
+     * @return the bucket
+     */
+    private int bucketOf(final int entry) {
+        int bucket = hashes[entry] & mask;
+
+        while (table[bucket] != entry + 1) {
+            bucket = (bucket + 1) & mask;
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Empties a bucket, shifting back the following entries of its probe
+     * sequence so that no tombstone is needed.
+     *
+     * @param bucket
+     *            the bucket
+     */
+    private void clearBucket(final int bucket) {
+        int hole = bucket;
+        int current = (hole + 1) & mask;
+
+        while (table[current] != 0) {
+            int home = hashes[table[current] - 1] & mask;
+
+            // Move the entry if the hole lies between its home and itself
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                table[hole] = table[current];
+                hole = current;
+            }
+            current = (current + 1) & mask;
+        }
+
+        table[hole] = 0;
+    }
+
+    /**
+     * Adds an entry at the beginning of the recency list.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void linkFirst(final int entry) {
+        prev[entry] = NIL;
+        next[entry] = head;
+
+        if (head != NIL) {
+            prev[head] = entry;
+        } else {
+            tail = entry;
+        }
+        head = entry;
+    }
+
+    /**
+     * Removes an entry from the recency list.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void unlink(final int entry) {
+        if (prev[entry] != NIL) {
+            next[prev[entry]] = next[entry];
+        } else {
+            head = next[entry];
+        }
+
+        if (next[entry] != NIL) {
+            prev[next[entry]] = prev[entry];
+        } else {
+            tail = prev[entry];
+        }
+    }
+
+    /**
+     * Removes an entry from both the index and the list, giving its number
+     * back to the free list.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void removeEntry(final int entry) {
+        clearBucket(bucketOf(entry));
+        unlink(entry);
+        addWeight(-weigh(keys[entry], values[entry]));
+
+        keys[entry] = null;
+        values[entry] = null;
+        next[entry] = freeHead;
+        freeHead = entry;
+        --size;
+    }
+
+    /**
+     * Checks if the eldest entry should be removed and removes it if needed.
+     */
+    private void checkAndRemoveEldestEntry() {
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        if (stalePolicy == null || tail == NIL) {
+            return;
+        }
+
+        if (stalePolicy.shouldRemoveEldestEntry(keys[tail], values[tail],
+                size, getTotalWeight())) {
+            removeEntry(tail);
+            clearStaleEntries();
+        }
+    }
+
+    /**
+     * Removes the eldest entries while the total weight is over the maximum.
+     */
+    private void removeOverweightEntries() {
+        while (isOverweight() && tail != NIL) {
+            removeEntry(tail);
+        }
+    }
+
+    @Override
+    public final V get(final K key) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+        checkAndRemoveEldestEntry();
+
+        int bucket = findBucket(key, hash(key));
+
+        // Not found
+        if (bucket == NIL) {
+            bcstListener.onMiss(key);
+            return null;
+        }
+
+        // Move to first place
+        int entry = table[bucket] - 1;
+        if (entry != head) {
+            unlink(entry);
+            linkFirst(entry);
+        }
+
+        bcstListener.onHit(key);
+        return values[entry];
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        int hash = hash(key);
+        int bucket = findBucket(key, hash);
+
+        // Existing slot
+        if (bucket != NIL) {
+            int entry = table[bucket] - 1;
+            if (entry != head) {
+                unlink(entry);
+                linkFirst(entry);
+            }
+            addWeight(weigh(key, value) - weigh(key, values[entry]));
+            values[entry] = value;
+
+            bcstListener.onPut(key, value);
+            removeOverweightEntries();
+            return;
+        }
+
+        // New slot
+        int entry;
+        if (freeHead != NIL) {
+            entry = freeHead;
+            freeHead = next[entry];
+        } else {
+            if (unusedEntry == keys.length) {
+                grow();
+            }
+            entry = unusedEntry++;
+        }
+
+        keys[entry] = key;
+        values[entry] = value;
+        hashes[entry] = hash;
+        linkFirst(entry);
+
+        bucket = hash & mask;
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = entry + 1;
+        ++size;
+
+        addWeight(weigh(key, value));
+        bcstListener.onPut(key, value);
+
+        // Clean oldest slot if needed
+        checkAndRemoveEldestEntry();
+        removeOverweightEntries();
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        return findBucket(key, hash(key)) != NIL;
+    }
+
+    @Override
+    protected final boolean supportsWeigher() {
+        return true;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public final V remove(final K key) {
+        int bucket = findBucket(key, hash(key));
+        if (bucket == NIL) {
+            return null;
+        }
+
+        int entry = table[bucket] - 1;
+        V value = values[entry];
+        removeEntry(entry);
+        return value;
+    }
+
+    @Override
+    public final void clearAll() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        Arrays.fill(table, 0);
+
+        head = NIL;
+        tail = NIL;
+        size = 0;
+        freeHead = NIL;
+        unusedEntry = 0;
+        resetWeight();
+    }
+
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        if (tail == NIL) {
+            return null;
+        }
+        return new Pair<K, V>(keys[tail], values[tail]);
+    }
+}
@@ -0,0 +1,617 @@
+package cachingSystem.classes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Ticker;
+import dataStructures.classes.DoublyLinkedList;
+import dataStructures.classes.Node;
+import dataStructures.classes.Pair;
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * Thread safe variant of the LRUCache. The keys are partitioned into segments
+ * and every segment has its own lock, hash table and recency list, so threads
+ * working on keys from different segments do not block each other.
+ *
+ * The recency order is exact inside a segment. Across segments the eldest
+ * entry is the segment tail with the oldest timestamp. Listener events are
+ * sent after the segment lock is released, so the listener must be thread
+ * safe when the cache is shared between threads.
+ *
+ * With buffered reads enabled, get does not take the segment lock. A hit is
+ * recorded in a lossy ring buffer (one per thread stripe) and the buffers are
+ * replayed against the recency list in batches, when a buffer fills up or
+ * when a put runs. The eviction order becomes approximate, but the stale
+ * policy is still checked after every insertion.
+ *
+ * With a weigher, the total weight is kept in an atomic counter and the
+ * eldest entries are evicted while it is over the maximum.
+ *
+ * After an insertion the stale policy is first asked about the tail of the
+ * segment that was written, under that segment lock only. When it asks for an
+ * eviction, the victim is the eldest tail among a sample of segments: the one
+ * that was written and the next non-empty ones from a rotating cursor, up to
+ * EVICTION_SAMPLES in total, locked one at a time. Writers thus do not take
+ * every segment lock, at the price of an approximate LRU order across
+ * segments; it stays exact with at most EVICTION_SAMPLES segments.
+ * getEldestEntry still compares the tails of every segment.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class ConcurrentLRUCache<K, V> extends ObservableCache<K, V> {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int MAX_SEGMENTS = 1 << 16;
+    private static final int READ_BUFFER_STRIPES = 4;
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 8;
+    private static final int EVICTION_SAMPLES = 4;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final AtomicInteger count;
+    private final AtomicLong weight;
+    private final AtomicInteger evictionCursor;
+    private final boolean bufferedReads;
+    private final Ticker ticker;
+
+    public ConcurrentLRUCache() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a cache with at least @concurrencyLevel segments and exact
+     * recency updates.
+     *
+     * @param concurrencyLevel
+     *            the expected number of threads using the cache
+     */
+    public ConcurrentLRUCache(final int concurrencyLevel) {
+        this(concurrencyLevel, false);
+    }
+
+    /**
+     * Creates a cache with at least @concurrencyLevel segments. The number of
+     * segments is rounded up to a power of two.
+     *
+     * @param concurrencyLevel
+     *            the expected number of threads using the cache
+     * @param bufferedReads
+     *            true if hits should be recorded in read buffers instead of
+     *            moving the entry under the segment lock
+     */
+    public ConcurrentLRUCache(final int concurrencyLevel,
+            final boolean bufferedReads) {
+        this(concurrencyLevel, bufferedReads, new SystemTicker());
+    }
+
+    /**
+     * Creates a cache whose entries are stamped with the time of @ticker.
+     *
+     * @param concurrencyLevel
+     *            the expected number of threads using the cache
+     * @param bufferedReads
+     *            true if hits should be recorded in read buffers
+     * @param ticker
+     *            the time source
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLRUCache(final int concurrencyLevel,
+            final boolean bufferedReads, final Ticker ticker) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid concurrency level: " + concurrencyLevel);
+        }
+
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel
+                && segmentCount < MAX_SEGMENTS) {
+            segmentCount <<= 1;
+        }
+
+        segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = new Segment<K, V>();
+        }
+
+        segmentMask = segmentCount - 1;
+        count = new AtomicInteger();
+        weight = new AtomicLong();
+        evictionCursor = new AtomicInteger();
+        this.bufferedReads = bufferedReads;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Tells whether hits are recorded in read buffers.
+     *
+     * @return true if reads are buffered
+     */
+    public final boolean hasBufferedReads() {
+        return bufferedReads;
+    }
+
+    /**
+     * Gets the segment responsible for a key.
+     *
+     * @param key
+     *            the key
+     * @return the segment
+     */
+    private Segment<K, V> segmentFor(final Object key) {
+        int hash = key.hashCode();
+
+        // Spread the high bits so that similar hashes land in other segments
+        hash ^= hash >>> (Integer.SIZE / 2);
+        return segments[hash & segmentMask];
+    }
+
+    /**
+     * Gets the segment whose tail is the eldest entry of the whole cache.
+     *
+     * @return the segment, or null if the cache is empty
+     */
+    private Segment<K, V> eldestSegment() {
+        Segment<K, V> eldest = null;
+        long eldestTime = 0;
+
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                Node<K, V> tail = segment.list.getTail();
+                if (tail != null && (eldest == null
+                        || tail.getTimeStamp() - eldestTime < 0)) {
+                    eldestTime = tail.getTimeStamp();
+                    eldest = segment;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        return eldest;
+    }
+
+    /**
+     * Gets the segment whose tail is the eldest among a sample of segments:
+     * @first, then the next non-empty segments from the eviction cursor, up to
+     * EVICTION_SAMPLES in total. Empty segments are skipped without locking.
+     *
+     * @param first
+     *            the segment to sample first, or null
+     * @return the segment, or null if every segment is empty
+     */
+    private Segment<K, V> sampleEldestSegment(final Segment<K, V> first) {
+        Segment<K, V> eldest = null;
+        long eldestTime = 0;
+        int sampled = 0;
+        int start = evictionCursor.getAndAdd(EVICTION_SAMPLES);
+
+        // Step -1 samples @first, the next steps follow the cursor
+        for (int i = -1; i < segments.length && sampled < EVICTION_SAMPLES;
+                ++i) {
+            Segment<K, V> segment = (i < 0) ? first
+                    : segments[(start + i) & segmentMask];
+            if (segment == null || (i >= 0 && segment == first)
+                    || segment.map.isEmpty()) {
+                continue;
+            }
+
+            segment.lock.lock();
+            try {
+                Node<K, V> tail = segment.list.getTail();
+                if (tail != null && (eldest == null
+                        || tail.getTimeStamp() - eldestTime < 0)) {
+                    eldestTime = tail.getTimeStamp();
+                    eldest = segment;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+            ++sampled;
+        }
+
+        return eldest;
+    }
+
+    /**
+     * Records a hit in the read buffer of the current thread stripe. The hit
+     * is dropped if the buffer is full or another thread won the slot.
+     *
+     * @param segment
+     *            the segment of the node
+     * @param node
+     *            the node that was read
+     */
+    private void recordRead(final Segment<K, V> segment,
+            final Node<K, V> node) {
+        int stripe = (int) Thread.currentThread().getId()
+                & (READ_BUFFER_STRIPES - 1);
+        ReadBuffer<K, V> buffer = segment.readBuffers[stripe];
+
+        long tail = buffer.writeCounter.get();
+        long pending = tail - buffer.readCounter;
+
+        if (pending < READ_BUFFER_SIZE
+                && buffer.writeCounter.compareAndSet(tail, tail + 1)) {
+            buffer.slots.lazySet((int) (tail & (READ_BUFFER_SIZE - 1)), node);
+            ++pending;
+        }
+
+        if (pending >= READ_BUFFER_DRAIN_THRESHOLD
+                && segment.lock.tryLock()) {
+            try {
+                drainReadBuffers(segment);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replays the recorded hits against the recency list. Must be called
+     * with the segment lock held.
+     *
+     * @param segment
+     *            the segment
+     */
+    private void drainReadBuffers(final Segment<K, V> segment) {
+        if (!bufferedReads) {
+            return;
+        }
+
+        for (ReadBuffer<K, V> buffer : segment.readBuffers) {
+            long head = buffer.readCounter;
+            long tail = buffer.writeCounter.get();
+
+            while (head < tail) {
+                Node<K, V> node = buffer.slots.getAndSet(
+                        (int) (head & (READ_BUFFER_SIZE - 1)), null);
+
+                // Slot claimed but not written yet, retry on next drain
+                if (node == null) {
+                    break;
+                }
+
+                // Skip nodes that were removed or replaced in the meantime
+                if (segment.map.get(node.getKey()) == node) {
+                    segment.list.moveFirst(node);
+                    node.setTimeStamp(ticker.read());
+                }
+                ++head;
+            }
+
+            buffer.readCounter = head;
+        }
+    }
+
+    @Override
+    public final V get(final K key) {
+        Segment<K, V> segment = segmentFor(key);
+        Node<K, V> node;
+        V value = null;
+
+        if (bufferedReads) {
+            node = segment.map.get(key);
+            if (node != null) {
+                value = node.getValue();
+                recordRead(segment, node);
+            }
+        } else {
+            segment.lock.lock();
+            try {
+                node = segment.map.get(key);
+                if (node != null) {
+                    // Move to first place
+                    segment.list.moveFirst(node);
+                    node.setTimeStamp(ticker.read());
+                    value = node.getValue();
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+
+        CacheListener<K, V> listener = getCacheListener();
+        if (listener != null) {
+            if (node != null) {
+                listener.onHit(key);
+            } else {
+                listener.onMiss(key);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        Segment<K, V> segment = segmentFor(key);
+        boolean inserted = false;
+        long weightDelta = weigh(key, value);
+
+        segment.lock.lock();
+        try {
+            drainReadBuffers(segment);
+            Node<K, V> node = segment.map.get(key);
+
+            if (node != null) {
+                weightDelta -= weigh(key, node.getValue());
+            }
+
+            if (node != null && bufferedReads) {
+                // Existing slot, replaced because readers do not lock
+                Node<K, V> newNode = new Node<K, V>(key, value, null, null);
+                newNode.setTimeStamp(ticker.read());
+                segment.list.remove(node);
+                segment.list.add(newNode);
+                segment.map.put(key, newNode);
+            } else if (node != null) {
+                // Existing slot
+                segment.list.moveFirst(node);
+                node.setValue(value);
+                node.setTimeStamp(ticker.read());
+            } else {
+                // New slot
+                node = new Node<K, V>(key, value, null, null);
+                node.setTimeStamp(ticker.read());
+                segment.list.add(node);
+                segment.map.put(key, node);
+                count.incrementAndGet();
+                inserted = true;
+            }
+            weight.addAndGet(weightDelta);
+        } finally {
+            segment.lock.unlock();
+        }
+
+        CacheListener<K, V> listener = getCacheListener();
+        if (listener != null) {
+            listener.onPut(key, value);
+        }
+
+        // Clean oldest slots if needed
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        if (inserted && stalePolicy != null) {
+            while (shouldEvictFrom(segment, stalePolicy)
+                    && evictEldest(segment, stalePolicy)) {
+                // One entry removed, the bound may still be exceeded
+            }
+        }
+        while (weight.get() > getMaxWeight()
+                && evictEldest(segment, null)) {
+            // One entry removed, the weight may still be exceeded
+        }
+    }
+
+    /**
+     * Removes a node from a segment. Must be called with the segment lock
+     * held.
+     *
+     * @param segment
+     *            the segment
+     * @param node
+     *            the node
+     */
+    private void removeNode(final Segment<K, V> segment,
+            final Node<K, V> node) {
+        segment.map.remove(node.getKey());
+        segment.list.remove(node);
+        count.decrementAndGet();
+        weight.addAndGet(-weigh(node.getKey(), node.getValue()));
+    }
+
+    /**
+     * Asks the stale policy about the tail of one segment. Only the lock of
+     * that segment is taken.
+     *
+     * @param segment
+     *            the segment
+     * @param stalePolicy
+     *            the policy
+     * @return true if the policy asks for an eviction
+     */
+    private boolean shouldEvictFrom(final Segment<K, V> segment,
+            final CacheStalePolicy<K, V> stalePolicy) {
+        segment.lock.lock();
+        try {
+            Node<K, V> tail = segment.list.getTail();
+
+            return tail != null && stalePolicy.shouldRemoveEldestEntry(
+                    tail.getKey(), tail.getValue(), count.get(),
+                    getTotalWeight());
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the eldest entry of a sample of segments if the stale policy
+     * asks for it, or unconditionally if there is no policy. Only one segment
+     * lock is held at a time.
+     *
+     * @param first
+     *            the segment to sample first, or null
+     * @param stalePolicy
+     *            the policy, or null to evict for the weight
+     * @return true if an entry was removed
+     */
+    private boolean evictEldest(final Segment<K, V> first,
+            final CacheStalePolicy<K, V> stalePolicy) {
+        while (true) {
+            Segment<K, V> segment = sampleEldestSegment(first);
+            if (segment == null) {
+                return false;
+            }
+
+            segment.lock.lock();
+            try {
+                drainReadBuffers(segment);
+                Node<K, V> tail = segment.list.getTail();
+
+                // Emptied by another thread, look again
+                if (tail == null) {
+                    continue;
+                }
+
+                if (stalePolicy != null && !stalePolicy.shouldRemoveEldestEntry(
+                        tail.getKey(), tail.getValue(), count.get(),
+                        getTotalWeight())) {
+                    return false;
+                }
+
+                removeNode(segment, tail);
+                return true;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the eldest entries of sampled segments while the stale policy
+     * asks for it. Only one segment lock is held at a time.
+     */
+    @Override
+    public final void clearStaleEntries() {
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        if (stalePolicy == null) {
+            return;
+        }
+
+        while (evictEldest(null, stalePolicy)) {
+            // One entry removed, the bound may still be exceeded
+        }
+    }
+
+    @Override
+    public final int size() {
+        return count.get();
+    }
+
+    @Override
+    public final long getTotalWeight() {
+        return weight.get();
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        return segmentFor(key).map.containsKey(key);
+    }
+
+    @Override
+    protected final boolean supportsWeigher() {
+        return true;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public final V remove(final K key) {
+        Segment<K, V> segment = segmentFor(key);
+
+        segment.lock.lock();
+        try {
+            Node<K, V> node = segment.map.get(key);
+            if (node == null) {
+                return null;
+            }
+
+            removeNode(segment, node);
+            return node.getValue();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public final void clearAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                count.addAndGet(-segment.list.size());
+                for (Node<K, V> node : segment.map.values()) {
+                    weight.addAndGet(-weigh(node.getKey(), node.getValue()));
+                }
+                segment.map.clear();
+                segment.list.removeAll();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        Segment<K, V> segment = eldestSegment();
+        if (segment == null) {
+            return null;
+        }
+
+        segment.lock.lock();
+        try {
+            drainReadBuffers(segment);
+            Node<K, V> tail = segment.list.getTail();
+            if (tail == null) {
+                return null;
+            }
+
+            return new Pair<K, V>(tail.getKey(), tail.getValue());
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Independently locked part of the cache.
+     *
+     * @param <K>
+     *            the key type
+     * @param <V>
+     *            the value type
+     */
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, Node<K, V>> map =
+                new ConcurrentHashMap<K, Node<K, V>>();
+        private final DoublyLinkedList<K, V> list =
+                new DoublyLinkedList<K, V>();
+        @SuppressWarnings("unchecked")
+        private final ReadBuffer<K, V>[] readBuffers =
+                (ReadBuffer<K, V>[]) new ReadBuffer<?, ?>[READ_BUFFER_STRIPES];
+
+        private Segment() {
+            for (int i = 0; i < READ_BUFFER_STRIPES; ++i) {
+                readBuffers[i] = new ReadBuffer<K, V>();
+            }
+        }
+    }
+
+    /**
+     * Lossy ring buffer of recent hits. Writers claim slots with a CAS on the
+     * write counter, the read counter is only advanced under the segment lock.
+     *
+     * @param <K>
+     *            the key type
+     * @param <V>
+     *            the value type
+     */
+    private static final class ReadBuffer<K, V> {
+        private final AtomicReferenceArray<Node<K, V>> slots =
+                new AtomicReferenceArray<Node<K, V>>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+    }
+}
@@ -5,6 +5,7 @@ import dataStructures.classes.Pair;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * The FIFOCache class should be considered a blackbox. All you need is its API!
@@ -13,8 +14,22 @@ public class FIFOCache<K, V> implements Cache<K, V> {
 
     private LinkedHashMap<K, V> cache;
 
+    // Key of the first inserted entry, read without creating an iterator
+    private K eldestKey;
+    private boolean hasEldestKey;
+
     public FIFOCache() {
-        cache = new LinkedHashMap<>();
+        cache = new LinkedHashMap<K, V>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                // Called after every insertion of a new key
+                eldestKey = eldest.getKey();
+                hasEldestKey = true;
+                return false;
+            }
+        };
     }
 
     @Override
@@ -32,6 +47,11 @@ public class FIFOCache<K, V> implements Cache<K, V> {
         return cache.size();
     }
 
+    @Override
+    public final boolean containsKey(final K key) {
+        return cache.containsKey(key);
+    }
+
     @Override
     public final boolean isEmpty() {
         return size() == 0;
@@ -39,12 +59,36 @@ public class FIFOCache<K, V> implements Cache<K, V> {
 
     @Override
     public final V remove(final K key) {
+        if (hasEldestKey && Objects.equals(key, eldestKey)) {
+            hasEldestKey = false;
+            eldestKey = null;
+        }
         return cache.remove(key);
     }
 
     @Override
     public final void clearAll() {
         cache.clear();
+        hasEldestKey = false;
+        eldestKey = null;
+    }
+
+    /**
+     * Get the key of the eldest entry. Unlike @getEldestEntry, this does not
+     * allocate while the eldest key is known.
+     *
+     * @return the key, or null if the cache is empty
+     */
+    public final K getEldestKey() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        if (!hasEldestKey) {
+            eldestKey = cache.keySet().iterator().next();
+            hasEldestKey = true;
+        }
+        return eldestKey;
     }
 
     @Override
@@ -53,8 +97,8 @@ public class FIFOCache<K, V> implements Cache<K, V> {
             return null;
         }
 
-        Map.Entry<K, V> eldest = cache.entrySet().iterator().next();
+        K key = getEldestKey();
 
-        return new Pair<K, V>(eldest.getKey(), eldest.getValue());
+        return new Pair<K, V>(key, cache.get(key));
     }
 }
@@ -3,6 +3,8 @@ package cachingSystem.classes;
 import java.util.HashMap;
 import java.util.Map;
 
+import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Ticker;
 import dataStructures.classes.DoublyLinkedList;
 import dataStructures.classes.Node;
 import dataStructures.classes.Pair;
@@ -14,26 +16,107 @@ import observerPattern.classes.BroadcastListener;
  */
 public class LRUCache<K, V> extends ObservableCache<K, V> {
 
+    /**
+     * Time to live of a put that does not give one.
+     */
+    protected static final long DEFAULT_EXPIRATION = -1;
+
     protected Map<K, Node<K, V>> data;
     protected DoublyLinkedList<K, V> doublyList;
+    protected final Ticker ticker;
     private BroadcastListener<K, V> bcstListener;
 
     public LRUCache() {
+        this(new SystemTicker());
+    }
+
+    /**
+     * Creates a cache whose entries are stamped with the time of @ticker.
+     *
+     * @param ticker
+     *            the time source
+     */
+    public LRUCache(final Ticker ticker) {
         data = new HashMap<K, Node<K, V>>();
         doublyList = new DoublyLinkedList<K, V>();
+        this.ticker = ticker;
     }
 
     /**
      * Checks if the eldest entry should be removed and removes it if needed.
      */
     protected void checkAndRemoveEldestEntry() {
-        if (getStalePolicy().shouldRemoveEldestEntry(getEldestEntry())) {
-            data.remove(doublyList.getTail().getKey());
-            doublyList.removeLast();
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        Node<K, V> eldest = doublyList.getTail();
+        if (stalePolicy == null || eldest == null) {
+            return;
+        }
+
+        if (stalePolicy.shouldRemoveEldestEntry(eldest.getKey(),
+                eldest.getValue(), size(), getTotalWeight())) {
+            removeNode(eldest);
             clearStaleEntries();
         }
     }
 
+    /**
+     * Removes the eldest entries while the total weight is over the maximum.
+     */
+    protected final void removeOverweightEntries() {
+        while (isOverweight() && !doublyList.isEmpty()) {
+            removeNode(doublyList.getTail());
+        }
+    }
+
+    /**
+     * Removes a node from both the table and the list.
+     *
+     * @param node
+     *            node to be removed
+     */
+    protected final void removeNode(final Node<K, V> node) {
+        data.remove(node.getKey());
+        doublyList.remove(node);
+        addWeight(-weigh(node.getKey(), node.getValue()));
+        afterRemove(node);
+    }
+
+    /**
+     * Called after a node was found by a get operation.
+     *
+     * @param node
+     *            the node that was read
+     */
+    protected void afterRead(final Node<K, V> node) {
+    }
+
+    /**
+     * Called after a node was added or updated by a put operation.
+     *
+     * @param node
+     *            the node that was written
+     * @param millisToExpire
+     *            the time to live given with the put, or DEFAULT_EXPIRATION
+     */
+    protected void afterWrite(final Node<K, V> node,
+            final long millisToExpire) {
+    }
+
+    /**
+     * Called after a node was removed from the cache.
+     *
+     * @param node
+     *            the node that was removed
+     */
+    protected void afterRemove(final Node<K, V> node) {
+    }
+
+    /**
+     * Called after all the nodes were removed from the cache.
+     */
+    protected void afterClear() {
+    }
+
     @Override
     public final V get(final K key) {
         bcstListener = (BroadcastListener<K, V>) getCacheListener();
@@ -43,7 +126,8 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
             // Move to first place
             Node<K, V> node = data.get(key);
             doublyList.moveFirst(node);
-            node.updateTimeStamp();
+            node.setTimeStamp(ticker.read());
+            afterRead(node);
 
             // Return value
             bcstListener.onHit(key);
@@ -57,27 +141,49 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
 
     @Override
     public final void put(final K key, final V value) {
+        write(key, value, DEFAULT_EXPIRATION);
+    }
+
+    /**
+     * Inserts a key value pair and hands the time to live to afterWrite.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param millisToExpire
+     *            the time to live of the entry, or DEFAULT_EXPIRATION
+     */
+    protected final void write(final K key, final V value,
+            final long millisToExpire) {
         bcstListener = (BroadcastListener<K, V>) getCacheListener();
 
         // Existing slot
         if (data.containsKey(key)) {
             Node<K, V> node = data.get(key);
             doublyList.moveFirst(node);
+            addWeight(weigh(key, value) - weigh(key, node.getValue()));
             node.setValue(value);
-            node.updateTimeStamp();
+            node.setTimeStamp(ticker.read());
+            afterWrite(node, millisToExpire);
 
             bcstListener.onPut(key, value);
+            removeOverweightEntries();
             return;
         }
 
         // New slot
         Node<K, V> node = new Node<K, V>(key, value, null, null);
+        node.setTimeStamp(ticker.read());
         doublyList.add(node);
         data.put(key, node);
+        addWeight(weigh(key, value));
+        afterWrite(node, millisToExpire);
         bcstListener.onPut(key, value);
 
         // Clean oldest slot if needed
         checkAndRemoveEldestEntry();
+        removeOverweightEntries();
     }
 
     @Override
@@ -85,6 +191,16 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
         return doublyList.size();
     }
 
+    @Override
+    public final boolean containsKey(final K key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    protected final boolean supportsWeigher() {
+        return true;
+    }
+
     @Override
     public final boolean isEmpty() {
         return doublyList.isEmpty();
@@ -92,14 +208,21 @@ public class LRUCache<K, V> extends ObservableCache<K, V> {
 
     @Override
     public final V remove(final K key) {
-        doublyList.removeLast();
-        return data.remove(key).getValue();
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        removeNode(node);
+        return node.getValue();
     }
 
     @Override
     public final void clearAll() {
         data.clear();
         doublyList.removeAll();
+        resetWeight();
+        afterClear();
     }
 
     @Override
@@ -0,0 +1,373 @@
+package cachingSystem.classes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import cachingSystem.interfaces.CacheLoader;
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * Wraps an ObservableCache and fills it with a CacheLoader on a miss.
+ * Concurrent misses on the same key share one load: the first thread runs the
+ * loader and the others wait for its result.
+ *
+ * A miss is reported by the cache, then the loaded value is put and its read
+ * is reported as a hit, so listeners see a miss, a put and a hit for every
+ * loaded key. The wrapped cache is only accessed while holding its monitor, so
+ * it does not have to be thread safe.
+ *
+ * Asynchronous gets run the loader on an executor. Unless another one is set,
+ * a fixed pool of daemon threads, one per processor, is created on the first
+ * asynchronous miss and shut down by close.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class LoadingCache<K, V> implements AutoCloseable {
+
+    private final ObservableCache<K, V> cache;
+    private final CacheLoader<K, V> loader;
+    private final ConcurrentMap<K, CompletableFuture<V>> loads;
+    private volatile Executor executor;
+    private ExecutorService defaultPool;
+    private boolean closed;
+
+    /**
+     * Creates a loading view of @cache.
+     *
+     * @param cache
+     *            the cache holding the values
+     * @param loader
+     *            the loader called on a miss
+     */
+    public LoadingCache(final ObservableCache<K, V> cache,
+            final CacheLoader<K, V> loader) {
+        this.cache = cache;
+        this.loader = loader;
+        this.loads = new ConcurrentHashMap<K, CompletableFuture<V>>();
+    }
+
+    /**
+     * Set the executor that runs the loader for asynchronous gets. It can be
+     * a bounded pool or, on runtimes that have them, a virtual thread per task
+     * executor.
+     *
+     * @param executor
+     *            the executor
+     */
+    public final void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the executor for asynchronous loads, creating the default pool if
+     * none was set.
+     *
+     * @return the executor
+     */
+    private Executor getExecutor() {
+        Executor current = executor;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (loads) {
+            if (closed) {
+                throw new RejectedExecutionException("Loading cache closed");
+            }
+
+            if (executor == null) {
+                defaultPool = Executors.newFixedThreadPool(
+                        Runtime.getRuntime().availableProcessors(), task -> {
+                            Thread thread = new Thread(task, "cache-loader");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                executor = defaultPool;
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Shuts down the default pool, if it was created. An executor set with
+     * setExecutor is left to its owner. Asynchronous misses fail afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (loads) {
+            closed = true;
+
+            if (defaultPool != null) {
+                defaultPool.shutdown();
+                defaultPool = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the wrapped cache. Callers must synchronize on it.
+     *
+     * @return the cache
+     */
+    public final ObservableCache<K, V> getCache() {
+        return cache;
+    }
+
+    /**
+     * Get the value associated with a key without loading it.
+     *
+     * @param key
+     *            the key
+     * @return the value, or null
+     */
+    public final V getIfPresent(final K key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    /**
+     * Get the value associated with a key, loading it on a miss.
+     *
+     * @param key
+     *            the key
+     * @return the value
+     * @throws UncheckedIOException
+     *             if the loader failed to read the value
+     */
+    public final V get(final K key) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<V>();
+        CompletableFuture<V> running;
+
+        synchronized (cache) {
+            // A finished load is put under this monitor before it leaves
+            // loads, so it is either still running or cached by now
+            if (cache.containsKey(key)) {
+                return cache.get(key);
+            }
+            running = loads.putIfAbsent(key, load);
+        }
+
+        // No load in flight, this thread runs the loader
+        if (running == null) {
+            running = load;
+            load(key, load);
+        }
+
+        V loaded = join(running);
+        recordLoadedRead(key);
+        return loaded;
+    }
+
+    /**
+     * Tells the listener that the loaded value was read. The cache itself is
+     * not accessed again: for policies that count accesses, like ARC or CLOCK,
+     * a second access right after the load would make every new key look
+     * reused.
+     *
+     * @param key
+     *            the key
+     */
+    private void recordLoadedRead(final K key) {
+        synchronized (cache) {
+            CacheListener<K, V> listener = cache.getCacheListener();
+            if (listener != null) {
+                listener.onHit(key);
+            }
+        }
+    }
+
+    /**
+     * Get the value associated with a key without blocking the caller. A hit
+     * returns a completed future, a miss runs the loader on the executor.
+     *
+     * @param key
+     *            the key
+     * @return the future value, completed exceptionally if the load failed
+     */
+    public final CompletableFuture<V> getAsync(final K key) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        CompletableFuture<V> load = new CompletableFuture<V>();
+        CompletableFuture<V> running;
+
+        synchronized (cache) {
+            // A finished load is put under this monitor before it leaves
+            // loads, so it is either still running or cached by now
+            if (cache.containsKey(key)) {
+                return CompletableFuture.completedFuture(cache.get(key));
+            }
+            running = loads.putIfAbsent(key, load);
+        }
+
+        // No load in flight, hand it to the executor
+        if (running == null) {
+            running = load;
+            try {
+                getExecutor().execute(() -> load(key, load));
+            } catch (RejectedExecutionException e) {
+                loads.remove(key, load);
+                load.completeExceptionally(e);
+            }
+        }
+
+        return running.thenApply(loaded -> {
+            recordLoadedRead(key);
+            return loaded;
+        });
+    }
+
+    /**
+     * Insert a key value pair in the cache.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    public final void put(final K key, final V value) {
+        synchronized (cache) {
+            cache.put(key, value);
+        }
+    }
+
+    /**
+     * Tells whether a key has a value in the cache, without loading it or
+     * notifying the listener.
+     *
+     * @param key
+     *            the key
+     * @return true if the key is cached
+     */
+    public final boolean containsKey(final K key) {
+        synchronized (cache) {
+            return cache.containsKey(key);
+        }
+    }
+
+    /**
+     * Load the value of a key again and replace the cached one. Nothing is
+     * loaded or put if the key is not in the cache, so a refresh never brings
+     * back an evicted entry. The key is removed if the loader fails.
+     *
+     * @param key
+     *            the key
+     */
+    public final void refresh(final K key) {
+        if (!containsKey(key)) {
+            return;
+        }
+
+        try {
+            V value = loader.load(key);
+            if (value != null) {
+                synchronized (cache) {
+                    // Evicted or removed during the load
+                    if (cache.containsKey(key)) {
+                        cache.put(key, value);
+                    }
+                }
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Fall through and drop the stale value
+        }
+
+        invalidate(key);
+    }
+
+    /**
+     * Remove a key from the cache.
+     *
+     * @param key
+     *            the key
+     * @return the value associated with the key, or null
+     */
+    public final V invalidate(final K key) {
+        synchronized (cache) {
+            return cache.remove(key);
+        }
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return the size of the cache
+     */
+    public final int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Runs the loader for a key, stores the value and completes @load.
+     *
+     * @param key
+     *            the key
+     * @param load
+     *            the future shared by the threads waiting for the key
+     */
+    private void load(final K key, final CompletableFuture<V> load) {
+        try {
+            V value = loader.load(key);
+            if (value == null) {
+                throw new IllegalStateException(
+                        "Loader returned no value for: " + key);
+            }
+
+            put(key, value);
+            load.complete(value);
+        } catch (Throwable e) {
+            // Errors too, the waiters would block forever otherwise
+            load.completeExceptionally(e);
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Waits for a load and rethrows its failure.
+     *
+     * @param load
+     *            the load
+     * @return the loaded value
+     */
+    private V join(final CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package cachingSystem.classes;
 
 import cachingSystem.interfaces.Cache;
 import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.Weigher;
 import dataStructures.classes.Pair;
 import observerPattern.interfaces.CacheListener;
 
@@ -18,6 +19,9 @@ public abstract class ObservableCache<K, V> implements Cache<K, V> {
 
     private CacheStalePolicy<K, V> stalePolicy;
     private CacheListener<K, V> cacheListener;
+    private Weigher<K, V> weigher;
+    private long maxWeight;
+    private long totalWeight;
 
     /**
      * Set a policy for removing stale elements from the cache.
@@ -57,14 +61,114 @@ public abstract class ObservableCache<K, V> implements Cache<K, V> {
         return cacheListener;
     }
 
+    /**
+     * Bound the cache by the total weight of its entries. The cache evicts its
+     * eldest entries until the total is at most @maxWeight. The weigher must
+     * be set while the cache is empty, the entries already stored were never
+     * weighed.
+     *
+     * @param weigher
+     *            the weight of an entry
+     * @param maxWeight
+     *            the maximum total weight
+     * @throws IllegalStateException
+     *             if the cache does not support a weigher or is not empty
+     */
+    public void setWeigher(final Weigher<K, V> weigher,
+            final long maxWeight) {
+        if (!supportsWeigher()) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " cannot be bounded by weight");
+        }
+        if (!isEmpty()) {
+            throw new IllegalStateException(
+                    "The weigher must be set on an empty cache");
+        }
+
+        this.weigher = weigher;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Tells whether the cache keeps its total weight up to date and evicts
+     * entries when it goes over the maximum.
+     *
+     * @return true if setWeigher can be used
+     */
+    protected boolean supportsWeigher() {
+        return false;
+    }
+
+    /**
+     * Get the maximum total weight of the cache.
+     *
+     * @return the maximum weight, or Long.MAX_VALUE if there is no weigher
+     */
+    public long getMaxWeight() {
+        return (weigher == null) ? Long.MAX_VALUE : maxWeight;
+    }
+
+    /**
+     * Get the total weight of the entries in the cache.
+     *
+     * @return the total weight
+     */
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Get the weight of an entry.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @return the weight, or 0 if there is no weigher
+     */
+    protected final long weigh(final K key, final V value) {
+        return (weigher == null) ? 0 : weigher.weigh(key, value);
+    }
+
+    /**
+     * Update the running total weight.
+     *
+     * @param delta
+     *            the weight that was added, negative if removed
+     */
+    protected final void addWeight(final long delta) {
+        totalWeight += delta;
+    }
+
+    /**
+     * Reset the running total weight after the cache was emptied.
+     */
+    protected final void resetWeight() {
+        totalWeight = 0;
+    }
+
+    /**
+     * Tells whether the total weight is over the maximum.
+     *
+     * @return true if entries should be evicted
+     */
+    protected final boolean isOverweight() {
+        return weigher != null && totalWeight > maxWeight;
+    }
+
     /**
      * Clear the stale elements from the cache. This method must make use of the
      * stale policy.
      *
      */
     public void clearStaleEntries() {
+        if (stalePolicy == null) {
+            return;
+        }
+
         Pair<K, V> entry = getEldestEntry();
-        if (stalePolicy.shouldRemoveEldestEntry(entry)) {
+        if (entry != null && stalePolicy.shouldRemoveEldestEntry(
+                entry.getKey(), entry.getValue(), size(), totalWeight)) {
             remove(entry.getKey());
         }
     }
@@ -1,5 +1,6 @@
 package cachingSystem.classes;
 
+import cachingSystem.interfaces.CacheStalePolicy;
 import dataStructures.classes.Pair;
 import observerPattern.classes.BroadcastListener;
 
@@ -19,24 +20,49 @@ public class ObservableFIFOCache<K, V> extends ObservableCache<K, V> {
     public final V get(final K key) {
         bcstListener = (BroadcastListener<K, V>) getCacheListener();
 
+        V value = fifo.get(key);
+
         // Not found
-        if (fifo.get(key) == null) {
+        if (value == null) {
             bcstListener.onMiss(key);
             return null;
         }
 
         // Return value
         bcstListener.onHit(key);
-        return fifo.get(key);
+        return value;
     }
 
     @Override
     public final void put(final K key, final V value) {
         bcstListener = (BroadcastListener<K, V>) getCacheListener();
 
+        V oldValue = fifo.get(key);
         fifo.put(key, value);
+        addWeight(weigh(key, value)
+                - ((oldValue == null) ? 0 : weigh(key, oldValue)));
+
         bcstListener.onPut(key, value);
         clearStaleEntries();
+
+        // Clean oldest slots while over the maximum weight
+        while (isOverweight() && !fifo.isEmpty()) {
+            remove(fifo.getEldestKey());
+        }
+    }
+
+    @Override
+    public final void clearStaleEntries() {
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        if (stalePolicy == null || fifo.isEmpty()) {
+            return;
+        }
+
+        K key = fifo.getEldestKey();
+        if (stalePolicy.shouldRemoveEldestEntry(key, fifo.get(key), size(),
+                getTotalWeight())) {
+            remove(key);
+        }
     }
 
     @Override
@@ -44,6 +70,16 @@ public class ObservableFIFOCache<K, V> extends ObservableCache<K, V> {
         return fifo.size();
     }
 
+    @Override
+    public final boolean containsKey(final K key) {
+        return fifo.containsKey(key);
+    }
+
+    @Override
+    protected final boolean supportsWeigher() {
+        return true;
+    }
+
     @Override
     public final boolean isEmpty() {
         return fifo.isEmpty();
@@ -51,12 +87,17 @@ public class ObservableFIFOCache<K, V> extends ObservableCache<K, V> {
 
     @Override
     public final V remove(final K key) {
-        return fifo.remove(key);
+        V value = fifo.remove(key);
+        if (value != null) {
+            addWeight(-weigh(key, value));
+        }
+        return value;
     }
 
     @Override
     public final void clearAll() {
         fifo.clearAll();
+        resetWeight();
     }
 
     @Override
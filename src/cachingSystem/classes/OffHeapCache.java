@@ -0,0 +1,432 @@
+package cachingSystem.classes;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.ValueCodec;
+import dataStructures.classes.Pair;
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * LRU cache that keeps the serialized values outside of the Java heap. The
+ * memory is made of direct ByteBuffer slabs split into fixed size blocks; a
+ * value takes a chain of blocks whose links are kept in an int array. On the
+ * heap there is only the index: one small entry per key, linked in recency
+ * order.
+ *
+ * The capacity is given in bytes. A put evicts the least recently used entries
+ * until the new value fits; the stale policy, if any, is applied afterwards
+ * like in the other caches. The eldest value is only copied out and decoded
+ * for the policy if it uses values.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class OffHeapCache<K, V> extends ObservableCache<K, V> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 256;
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+    private static final int NO_BLOCK = -1;
+
+    private final ValueCodec<V> codec;
+    private final int blockSize;
+    private final int totalBlocks;
+    private final int blocksPerSlab;
+    private final ByteBuffer[] slabs;
+    private final int[] nextBlock;
+    private int freeBlockHead;
+    private int freeBlocks;
+    private int unusedBlock;
+
+    private final Map<K, Entry<K>> index;
+    private Entry<K> head;
+    private Entry<K> tail;
+    private long usedBytes;
+
+    /**
+     * Creates a cache holding at most @capacityBytes bytes of values.
+     *
+     * @param codec
+     *            the codec of the values
+     * @param capacityBytes
+     *            the off heap memory, in bytes
+     */
+    public OffHeapCache(final ValueCodec<V> codec, final long capacityBytes) {
+        this(codec, capacityBytes, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a cache holding at most @capacityBytes bytes of values, stored
+     * in blocks of @blockSize bytes.
+     *
+     * @param codec
+     *            the codec of the values
+     * @param capacityBytes
+     *            the off heap memory, in bytes
+     * @param blockSize
+     *            the size of a block, in bytes
+     */
+    public OffHeapCache(final ValueCodec<V> codec, final long capacityBytes,
+            final int blockSize) {
+        if (blockSize <= 0 || capacityBytes < blockSize) {
+            throw new IllegalArgumentException("Invalid capacity: "
+                    + capacityBytes + " bytes in blocks of " + blockSize);
+        }
+
+        long blocks = (capacityBytes + blockSize - 1) / blockSize;
+        if (blocks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Capacity too large: " + capacityBytes + " bytes");
+        }
+
+        this.codec = codec;
+        this.blockSize = blockSize;
+        this.totalBlocks = (int) blocks;
+        this.blocksPerSlab = Math.min(totalBlocks, MAX_SLAB_SIZE / blockSize);
+        this.slabs = new ByteBuffer[(totalBlocks + blocksPerSlab - 1)
+                / blocksPerSlab];
+        this.nextBlock = new int[totalBlocks];
+        this.index = new HashMap<K, Entry<K>>();
+
+        clearAll();
+    }
+
+    /**
+     * Gets the off heap memory of the cache.
+     *
+     * @return the capacity, in bytes
+     */
+    public final long getCapacityBytes() {
+        return (long) totalBlocks * blockSize;
+    }
+
+    /**
+     * Gets the number of bytes taken by the stored values.
+     *
+     * @return the used bytes
+     */
+    public final long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public final V get(final K key) {
+        CacheListener<K, V> listener = getCacheListener();
+        Entry<K> entry = index.get(key);
+
+        // Not found
+        if (entry == null) {
+            if (listener != null) {
+                listener.onMiss(key);
+            }
+            return null;
+        }
+
+        // Move to first place
+        unlink(entry);
+        linkFirst(entry);
+
+        if (listener != null) {
+            listener.onHit(key);
+        }
+        return codec.decode(read(entry));
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        byte[] bytes = codec.encode(value);
+        int blocks = blocksFor(bytes.length);
+
+        if (blocks > totalBlocks) {
+            throw new IllegalArgumentException("Value of " + bytes.length
+                    + " bytes exceeds the cache capacity");
+        }
+
+        // Existing slot, its blocks are reused for the new value
+        Entry<K> entry = index.get(key);
+        if (entry != null) {
+            unlink(entry);
+            release(entry);
+        } else {
+            entry = new Entry<K>(key);
+            index.put(key, entry);
+        }
+
+        // Make room by evicting the least recently used values
+        while (freeBlocks < blocks) {
+            evict(tail);
+        }
+
+        write(entry, bytes);
+        linkFirst(entry);
+
+        CacheListener<K, V> listener = getCacheListener();
+        if (listener != null) {
+            listener.onPut(key, value);
+        }
+
+        if (getStalePolicy() != null) {
+            clearStaleEntries();
+        }
+    }
+
+    /**
+     * Removes the eldest entries while the stale policy asks for it.
+     */
+    @Override
+    public final void clearStaleEntries() {
+        CacheStalePolicy<K, V> stalePolicy = getStalePolicy();
+        if (stalePolicy == null) {
+            return;
+        }
+
+        boolean decode = stalePolicy.usesEntryValue();
+
+        while (tail != null && stalePolicy.shouldRemoveEldestEntry(tail.key,
+                decode ? codec.decode(read(tail)) : null, size(),
+                getTotalWeight())) {
+            evict(tail);
+        }
+    }
+
+    @Override
+    public final int size() {
+        return index.size();
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    @Override
+    public final V remove(final K key) {
+        Entry<K> entry = index.remove(key);
+        if (entry == null) {
+            return null;
+        }
+
+        V value = codec.decode(read(entry));
+        unlink(entry);
+        release(entry);
+        return value;
+    }
+
+    @Override
+    public final void clearAll() {
+        index.clear();
+        head = null;
+        tail = null;
+        usedBytes = 0;
+
+        // Slabs stay allocated, blocks are handed out from the start again
+        freeBlockHead = NO_BLOCK;
+        freeBlocks = totalBlocks;
+        unusedBlock = 0;
+    }
+
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        if (tail == null) {
+            return null;
+        }
+        return new Pair<K, V>(tail.key, codec.decode(read(tail)));
+    }
+
+    /**
+     * Removes an entry without reading its value.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void evict(final Entry<K> entry) {
+        unlink(entry);
+        release(entry);
+        index.remove(entry.key);
+    }
+
+    /**
+     * Gets the number of blocks needed for a value.
+     *
+     * @param length
+     *            the size of the value, in bytes
+     * @return the number of blocks
+     */
+    private int blocksFor(final int length) {
+        return Math.max(1, (length + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Takes a free block, allocating its slab on first use.
+     *
+     * @return the block
+     */
+    private int allocateBlock() {
+        int block;
+
+        if (freeBlockHead != NO_BLOCK) {
+            block = freeBlockHead;
+            freeBlockHead = nextBlock[block];
+        } else {
+            block = unusedBlock++;
+
+            int slab = block / blocksPerSlab;
+            if (slabs[slab] == null) {
+                int slabBlocks = Math.min(blocksPerSlab,
+                        totalBlocks - slab * blocksPerSlab);
+                slabs[slab] = ByteBuffer.allocateDirect(slabBlocks * blockSize);
+            }
+        }
+
+        --freeBlocks;
+        nextBlock[block] = NO_BLOCK;
+        return block;
+    }
+
+    /**
+     * Gives the blocks of an entry back to the free list.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void release(final Entry<K> entry) {
+        int blocks = blocksFor(entry.length);
+        int last = entry.firstBlock;
+
+        for (int i = 1; i < blocks; ++i) {
+            last = nextBlock[last];
+        }
+
+        nextBlock[last] = freeBlockHead;
+        freeBlockHead = entry.firstBlock;
+        freeBlocks += blocks;
+        usedBytes -= entry.length;
+        entry.firstBlock = NO_BLOCK;
+    }
+
+    /**
+     * Copies a value into a new chain of blocks.
+     *
+     * @param entry
+     *            the entry of the value
+     * @param bytes
+     *            the value
+     */
+    private void write(final Entry<K> entry, final byte[] bytes) {
+        int previous = NO_BLOCK;
+        int offset = 0;
+
+        entry.length = bytes.length;
+        do {
+            int block = allocateBlock();
+            int length = Math.min(blockSize, bytes.length - offset);
+
+            if (previous == NO_BLOCK) {
+                entry.firstBlock = block;
+            } else {
+                nextBlock[previous] = block;
+            }
+
+            slabs[block / blocksPerSlab].put(
+                    (block % blocksPerSlab) * blockSize, bytes, offset, length);
+            offset += length;
+            previous = block;
+        } while (offset < bytes.length);
+
+        usedBytes += bytes.length;
+    }
+
+    /**
+     * Copies a value out of its chain of blocks.
+     *
+     * @param entry
+     *            the entry of the value
+     * @return the value
+     */
+    private byte[] read(final Entry<K> entry) {
+        byte[] bytes = new byte[entry.length];
+        int block = entry.firstBlock;
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            int length = Math.min(blockSize, bytes.length - offset);
+
+            slabs[block / blocksPerSlab].get(
+                    (block % blocksPerSlab) * blockSize, bytes, offset, length);
+            offset += length;
+            block = nextBlock[block];
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Adds an entry at the beginning of the recency list.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void linkFirst(final Entry<K> entry) {
+        entry.prev = null;
+        entry.next = head;
+
+        if (head != null) {
+            head.prev = entry;
+        } else {
+            tail = entry;
+        }
+        head = entry;
+    }
+
+    /**
+     * Removes an entry from the recency list.
+     *
+     * @param entry
+     *            the entry
+     */
+    private void unlink(final Entry<K> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * On heap part of a cached value: where its bytes start and how many
+     * there are.
+     *
+     * @param <K>
+     *            the key type
+     */
+    private static final class Entry<K> {
+        private final K key;
+        private int firstBlock;
+        private int length;
+        private Entry<K> prev;
+        private Entry<K> next;
+
+        private Entry(final K key) {
+            this.key = key;
+            this.firstBlock = NO_BLOCK;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package cachingSystem.classes;
+
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+/**
+ * S3-FIFO cache, made of three FIFO queues. New keys enter a small queue (10%
+ * of the capacity); the ones accessed again before reaching its end move to
+ * the main queue, the others are dropped and their keys are remembered in a
+ * ghost queue. A key found in the ghost queue goes straight to the main queue.
+ * Entries at the end of the main queue are put back at its start while they
+ * have been accessed since their last pass.
+ *
+ * Every entry keeps a frequency of at most 3. Hits only increment it, so the
+ * queues are never reordered on reads.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class S3FIFOCache<K, V> extends ObservableCache<K, V> {
+
+    private static final int SMALL_PERCENT = 10;
+    private static final int PERCENT = 100;
+    private static final int MAX_FREQUENCY = 3;
+
+    private final int capacity;
+    private final int smallCapacity;
+    private final int ghostCapacity;
+
+    private final FIFOCache<K, Entry<V>> small;
+    private final FIFOCache<K, Entry<V>> main;
+    private final FIFOCache<K, Boolean> ghost;
+
+    private BroadcastListener<K, V> bcstListener;
+
+    /**
+     * Creates a cache holding at most @capacity entries.
+     *
+     * @param capacity
+     *            the maximum capacity
+     */
+    public S3FIFOCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+        smallCapacity = Math.max(1, capacity * SMALL_PERCENT / PERCENT);
+        ghostCapacity = Math.max(1, capacity - smallCapacity);
+
+        small = new FIFOCache<K, Entry<V>>();
+        main = new FIFOCache<K, Entry<V>>();
+        ghost = new FIFOCache<K, Boolean>();
+    }
+
+    /**
+     * Gets the entry of a key from the small or the main queue.
+     *
+     * @param key
+     *            the key
+     * @return the entry, or null
+     */
+    private Entry<V> find(final K key) {
+        Entry<V> entry = small.get(key);
+        if (entry == null) {
+            entry = main.get(key);
+        }
+        return entry;
+    }
+
+    /**
+     * Evicts entries until there is room for a new one.
+     */
+    private void evict() {
+        while (size() >= capacity) {
+            if (small.size() >= smallCapacity || main.isEmpty()) {
+                evictSmall();
+            } else {
+                evictMain();
+            }
+        }
+    }
+
+    /**
+     * Takes the eldest entry out of the small queue. It is moved to the main
+     * queue if it was accessed again, otherwise only its key is kept, in the
+     * ghost queue.
+     */
+    private void evictSmall() {
+        K key = small.getEldestKey();
+        Entry<V> entry = small.remove(key);
+
+        if (entry.frequency > 0) {
+            entry.frequency = 0;
+            main.put(key, entry);
+            return;
+        }
+
+        ghost.put(key, Boolean.TRUE);
+        if (ghost.size() > ghostCapacity) {
+            ghost.remove(ghost.getEldestKey());
+        }
+    }
+
+    /**
+     * Takes the eldest entry out of the main queue. It is put back at the
+     * start of the queue if it was accessed since its last pass.
+     */
+    private void evictMain() {
+        K key = main.getEldestKey();
+        Entry<V> entry = main.remove(key);
+
+        if (entry.frequency > 0) {
+            --entry.frequency;
+            main.put(key, entry);
+        }
+    }
+
+    @Override
+    public final V get(final K key) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        Entry<V> entry = find(key);
+
+        // Not found
+        if (entry == null) {
+            bcstListener.onMiss(key);
+            return null;
+        }
+
+        entry.recordAccess();
+        bcstListener.onHit(key);
+        return entry.value;
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+
+        Entry<V> entry = find(key);
+
+        if (entry != null) {
+            // Existing slot
+            entry.value = value;
+            entry.recordAccess();
+        } else {
+            // New slot, in the main queue if it was evicted recently
+            evict();
+            if (ghost.remove(key) != null) {
+                main.put(key, new Entry<V>(value));
+            } else {
+                small.put(key, new Entry<V>(value));
+            }
+        }
+
+        bcstListener.onPut(key, value);
+        clearStaleEntries();
+    }
+
+    @Override
+    public final int size() {
+        return small.size() + main.size();
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public final V remove(final K key) {
+        Entry<V> entry = small.remove(key);
+        if (entry == null) {
+            entry = main.remove(key);
+        }
+
+        return (entry == null) ? null : entry.value;
+    }
+
+    @Override
+    public final void clearAll() {
+        small.clearAll();
+        main.clearAll();
+        ghost.clearAll();
+    }
+
+    /**
+     * The eldest entry is the one at the end of the queue the next eviction
+     * starts from.
+     *
+     * @return the eldest entry
+     */
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        Pair<K, Entry<V>> eldest;
+
+        if (small.size() >= smallCapacity || main.isEmpty()) {
+            eldest = small.getEldestEntry();
+        } else {
+            eldest = main.getEldestEntry();
+        }
+
+        if (eldest == null) {
+            return null;
+        }
+        return new Pair<K, V>(eldest.getKey(), eldest.getValue().value);
+    }
+
+    /**
+     * Value stored in the small and main queues, with its access frequency.
+     *
+     * @param <V>
+     *            the value type
+     */
+    private static final class Entry<V> {
+        private V value;
+        private int frequency;
+
+        private Entry(final V value) {
+            this.value = value;
+        }
+
+        private void recordAccess() {
+            if (frequency < MAX_FREQUENCY) {
+                ++frequency;
+            }
+        }
+    }
+}
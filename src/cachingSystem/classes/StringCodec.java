@@ -0,0 +1,21 @@
+package cachingSystem.classes;
+
+import java.nio.charset.StandardCharsets;
+
+import cachingSystem.interfaces.ValueCodec;
+
+/**
+ * Codec that stores strings as UTF-8 bytes.
+ */
+public final class StringCodec implements ValueCodec<String> {
+
+    @Override
+    public byte[] encode(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decode(final byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,14 @@
+package cachingSystem.classes;
+
+import cachingSystem.interfaces.Ticker;
+
+/**
+ * Ticker that reads the system monotonic clock on every call.
+ */
+public final class SystemTicker implements Ticker {
+
+    @Override
+    public long read() {
+        return System.nanoTime();
+    }
+}
@@ -1,10 +1,14 @@
 package cachingSystem.classes;
 
 import java.sql.Timestamp;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import cachingSystem.interfaces.Ticker;
 import dataStructures.classes.Node;
+import dataStructures.classes.TimerWheel;
 
 /**
  * The TimeAwareCache offers the same functionality as the LRUCache, but also
@@ -13,10 +17,54 @@ import dataStructures.classes.Node;
  * stale policies (e.g. removing entries that are older than 1 second).
  */
 public class TimeAwareCache<K, V> extends LRUCache<K, V> {
+
+    /**
+     * Events that restart the expiration time of an entry.
+     */
+    public enum ExpireMode {
+        AFTER_WRITE, AFTER_ACCESS,
+    }
+
     private long millisToExpire;
+    private ExpireMode expireMode;
+    private TimerWheel<K> timers;
+
+    // Keys put with their own expiration time, not moved by the policy
+    private final Set<K> ownExpiration = new HashSet<K>();
+
+    // Created once, a capturing lambda would be allocated on every access
+    private final Consumer<K> expireEntry = key -> {
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            removeNode(node);
+        }
+    };
 
     public TimeAwareCache() {
-        super();
+        this(new SystemTicker());
+    }
+
+    /**
+     * Creates a cache that measures the age of its entries with @ticker.
+     *
+     * @param ticker
+     *            the time source
+     */
+    public TimeAwareCache(final Ticker ticker) {
+        super(ticker);
+        expireMode = ExpireMode.AFTER_ACCESS;
+        timers = new TimerWheel<K>(toMillis(ticker.read()));
+    }
+
+    /**
+     * Converts ticks of the cache clock to milliseconds.
+     *
+     * @param ticks
+     *            the time in ticks
+     * @return the time in milliseconds
+     */
+    private static long toMillis(final long ticks) {
+        return TimeUnit.NANOSECONDS.toMillis(ticks);
     }
 
     /**
@@ -28,37 +76,121 @@ public class TimeAwareCache<K, V> extends LRUCache<K, V> {
      * @return the timestamp, or null
      */
     public Timestamp getTimestampOfKey(final K key) {
-        return (data.get(key) == null) ? null : data.get(key).getTimeStamp();
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        // Entries keep monotonic ticks, translate their age to wall time
+        long age = toMillis(ticker.read() - node.getTimeStamp());
+        return new Timestamp(System.currentTimeMillis() - age);
     }
 
     /**
      * Set a cache stale policy that should remove all elements older
      * than @millisToExpire milliseconds. This is a convenience method for
-     * setting a time based policy for the cache.
+     * setting a time based policy for the cache. The entries already stored,
+     * except those put with their own expiration time, are rescheduled: their
+     * age is still measured from their last get / put.
      *
      * @param millisToExpire
      *            the expiration time, in milliseconds
      */
     public void setExpirePolicy(final long millisToExpire) {
+        if (millisToExpire == this.millisToExpire) {
+            return;
+        }
+
         this.millisToExpire = millisToExpire;
+        for (K key : data.keySet()) {
+            if (!ownExpiration.contains(key)) {
+                timers.reschedule(key, millisToExpire);
+            }
+        }
+    }
+
+    /**
+     * Set whether the expiration time is measured from the last put or from
+     * the last get / put of a key.
+     *
+     * @param expireMode
+     *            the mode
+     */
+    public void setExpireMode(final ExpireMode expireMode) {
+        this.expireMode = expireMode;
+    }
+
+    /**
+     * Get the event that restarts the expiration time of an entry.
+     *
+     * @return the mode
+     */
+    public ExpireMode getExpireMode() {
+        return expireMode;
+    }
+
+    /**
+     * Insert a key value pair that expires after @entryMillisToExpire
+     * milliseconds instead of the time set by the expire policy. The time to
+     * live is kept until the next put of the key.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param entryMillisToExpire
+     *            the expiration time of this entry, in milliseconds
+     */
+    public void put(final K key, final V value,
+            final long entryMillisToExpire) {
+        if (entryMillisToExpire < 0) {
+            throw new IllegalArgumentException("Invalid expiration time: "
+                    + entryMillisToExpire);
+        }
+
+        write(key, value, entryMillisToExpire);
+    }
+
+    @Override
+    protected final void afterRead(final Node<K, V> node) {
+        if (expireMode == ExpireMode.AFTER_ACCESS) {
+            timers.touch(node.getKey(), toMillis(node.getTimeStamp()));
+        }
+    }
+
+    @Override
+    protected final void afterWrite(final Node<K, V> node,
+            final long entryMillisToExpire) {
+        if (entryMillisToExpire == DEFAULT_EXPIRATION) {
+            ownExpiration.remove(node.getKey());
+            timers.schedule(node.getKey(), toMillis(node.getTimeStamp()),
+                    millisToExpire);
+        } else {
+            ownExpiration.add(node.getKey());
+            timers.schedule(node.getKey(), toMillis(node.getTimeStamp()),
+                    entryMillisToExpire);
+        }
+    }
+
+    @Override
+    protected final void afterRemove(final Node<K, V> node) {
+        ownExpiration.remove(node.getKey());
+        timers.cancel(node.getKey());
+    }
+
+    @Override
+    protected final void afterClear() {
+        ownExpiration.clear();
+        timers.clear();
     }
 
     @Override
     /**
-     * Checks if the difference between the current time and the time in the
-     * node is greater than @millisToExpire and deletes the node if true.
+     * Removes the nodes whose expiration time has passed. The timer wheel only
+     * visits the buckets that became due since the last access, so expired
+     * entries are reclaimed a few at a time instead of scanning all nodes.
      */
     protected final void checkAndRemoveEldestEntry() {
-        long currentTime = System.currentTimeMillis();
-        Iterator<Entry<K, Node<K, V>>> it = data.entrySet().iterator();
-
-        while (it.hasNext()) {
-            Entry<K, Node<K, V>> entry = (Entry<K, Node<K, V>>) it.next();
-            if (currentTime - entry.getValue().getTimeStamp()
-                    .getTime() >= millisToExpire) {
-                it.remove();
-                doublyList.remove(entry.getValue());
-            }
-        }
+        timers.advance(toMillis(ticker.read()), expireEntry);
     }
 }
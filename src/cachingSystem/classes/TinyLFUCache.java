@@ -0,0 +1,303 @@
+package cachingSystem.classes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import dataStructures.classes.CountMinSketch;
+import dataStructures.classes.DoublyLinkedList;
+import dataStructures.classes.Node;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+/**
+ * Window TinyLFU cache. New entries go into a small LRU window; entries leaving
+ * the window compete with the eldest entry of the main region, and the one
+ * accessed more often, as estimated by a count-min sketch, is kept. The main
+ * region is a segmented LRU: entries hit while on probation are promoted to
+ * the protected segment.
+ *
+ * The sketch counts every get and put and is halved after a number of accesses
+ * proportional to the capacity, so old popularity fades away. A scan of keys
+ * seen once can then only flush the window, not the frequently used entries.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class TinyLFUCache<K, V> extends ObservableCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int PERCENT = 100;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_MAX_COUNT = 15;
+    private static final int SAMPLE_FACTOR = 10;
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+
+    private final Map<K, RegionNode<K, V>> data;
+    private final DoublyLinkedList<K, V> window;
+    private final DoublyLinkedList<K, V> probation;
+    private final DoublyLinkedList<K, V> protectedList;
+
+    private final CountMinSketch sketch;
+    private final int sampleSize;
+    private int samples;
+
+    private BroadcastListener<K, V> bcstListener;
+
+    /**
+     * Creates a cache holding at most @capacity entries.
+     *
+     * @param capacity
+     *            the maximum capacity
+     */
+    public TinyLFUCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        windowCapacity = Math.max(1, capacity * WINDOW_PERCENT / PERCENT);
+        mainCapacity = capacity - windowCapacity;
+        protectedCapacity = mainCapacity * PROTECTED_PERCENT / PERCENT;
+
+        data = new HashMap<K, RegionNode<K, V>>();
+        window = new DoublyLinkedList<K, V>();
+        probation = new DoublyLinkedList<K, V>();
+        protectedList = new DoublyLinkedList<K, V>();
+
+        sketch = new CountMinSketch(capacity, SKETCH_DEPTH, SKETCH_MAX_COUNT);
+        sampleSize = SAMPLE_FACTOR * capacity;
+    }
+
+    /**
+     * Counts an access in the frequency sketch, aging it when the sample is
+     * full.
+     *
+     * @param key
+     *            the key
+     */
+    private void recordAccess(final K key) {
+        sketch.increment(key);
+
+        if (++samples >= sampleSize) {
+            sketch.halve();
+            samples /= 2;
+        }
+    }
+
+    /**
+     * Gets the list that holds the nodes of a region.
+     *
+     * @param region
+     *            the region
+     * @return the list
+     */
+    private DoublyLinkedList<K, V> listOf(final int region) {
+        switch (region) {
+        case WINDOW:
+            return window;
+        case PROBATION:
+            return probation;
+        default:
+            return protectedList;
+        }
+    }
+
+    /**
+     * Moves an accessed node according to its region.
+     *
+     * @param node
+     *            the node
+     */
+    private void onAccess(final RegionNode<K, V> node) {
+        if (node.region != PROBATION) {
+            listOf(node.region).moveFirst(node);
+            return;
+        }
+
+        // Promote to the protected segment
+        probation.remove(node);
+        node.region = PROTECTED;
+        protectedList.add(node);
+
+        // Demote the eldest protected node if the segment is full
+        if (protectedList.size() > protectedCapacity) {
+            RegionNode<K, V> demoted = (RegionNode<K, V>) protectedList
+                    .getTail();
+            protectedList.removeLast();
+            demoted.region = PROBATION;
+            probation.add(demoted);
+        }
+    }
+
+    /**
+     * Moves the eldest window node to the main region and, if the main region
+     * is full, evicts either it or the eldest main node, whichever is less
+     * frequent.
+     */
+    private void evict() {
+        if (window.size() <= windowCapacity) {
+            return;
+        }
+
+        RegionNode<K, V> candidate = (RegionNode<K, V>) window.getTail();
+        window.removeLast();
+        candidate.region = PROBATION;
+        probation.add(candidate);
+
+        if (probation.size() + protectedList.size() <= mainCapacity) {
+            return;
+        }
+
+        RegionNode<K, V> victim = (RegionNode<K, V>) probation.getTail();
+        if (victim == candidate) {
+            victim = (RegionNode<K, V>) protectedList.getTail();
+        }
+
+        // Ties keep the entry that is already in the main region
+        if (victim == null
+                || sketch.estimate(candidate.getKey())
+                        <= sketch.estimate(victim.getKey())) {
+            removeNode(candidate);
+        } else {
+            removeNode(victim);
+        }
+    }
+
+    /**
+     * Removes a node from the table and from its list.
+     *
+     * @param node
+     *            the node
+     */
+    private void removeNode(final RegionNode<K, V> node) {
+        data.remove(node.getKey());
+        listOf(node.region).remove(node);
+    }
+
+    @Override
+    public final V get(final K key) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+        recordAccess(key);
+
+        RegionNode<K, V> node = data.get(key);
+
+        // Not found
+        if (node == null) {
+            bcstListener.onMiss(key);
+            return null;
+        }
+
+        onAccess(node);
+        bcstListener.onHit(key);
+        return node.getValue();
+    }
+
+    @Override
+    public final void put(final K key, final V value) {
+        bcstListener = (BroadcastListener<K, V>) getCacheListener();
+        recordAccess(key);
+
+        RegionNode<K, V> node = data.get(key);
+
+        // Existing slot
+        if (node != null) {
+            node.setValue(value);
+            onAccess(node);
+            bcstListener.onPut(key, value);
+            return;
+        }
+
+        // New slot, always admitted to the window
+        node = new RegionNode<K, V>(key, value);
+        window.add(node);
+        data.put(key, node);
+        bcstListener.onPut(key, value);
+
+        evict();
+        clearStaleEntries();
+    }
+
+    @Override
+    public final int size() {
+        return data.size();
+    }
+
+    @Override
+    public final boolean containsKey(final K key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public final V remove(final K key) {
+        RegionNode<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        removeNode(node);
+        return node.getValue();
+    }
+
+    @Override
+    public final void clearAll() {
+        data.clear();
+        window.removeAll();
+        probation.removeAll();
+        protectedList.removeAll();
+    }
+
+    /**
+     * The eldest entry is the next one the main region would give up: the
+     * eldest on probation, then the eldest protected, then the eldest in the
+     * window.
+     *
+     * @return the eldest entry
+     */
+    @Override
+    public final Pair<K, V> getEldestEntry() {
+        Node<K, V> eldest = probation.getTail();
+
+        if (eldest == null) {
+            eldest = protectedList.getTail();
+        }
+        if (eldest == null) {
+            eldest = window.getTail();
+        }
+        if (eldest == null) {
+            return null;
+        }
+
+        return new Pair<K, V>(eldest.getKey(), eldest.getValue());
+    }
+
+    /**
+     * List node that knows the region it belongs to.
+     *
+     * @param <K>
+     *            the key type
+     * @param <V>
+     *            the value type
+     */
+    private static final class RegionNode<K, V> extends Node<K, V> {
+        private int region;
+
+        private RegionNode(final K key, final V value) {
+            super(key, value, null, null);
+            this.region = WINDOW;
+        }
+    }
+}
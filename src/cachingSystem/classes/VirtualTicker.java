@@ -0,0 +1,36 @@
+package cachingSystem.classes;
+
+import java.util.concurrent.TimeUnit;
+
+import cachingSystem.interfaces.Ticker;
+
+/**
+ * Ticker whose time only moves when it is advanced. It lets a replay or a test
+ * run expiration based caches without waiting for real time to pass.
+ */
+public final class VirtualTicker implements Ticker {
+
+    private volatile long nanos;
+
+    /**
+     * Moves the time forward.
+     *
+     * @param duration
+     *            the amount of time
+     * @param unit
+     *            the unit of @duration
+     */
+    public void advance(final long duration, final TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid duration: " + duration);
+        }
+
+        nanos += unit.toNanos(duration);
+    }
+
+    @Override
+    public long read() {
+        return nanos;
+    }
+}
@@ -34,6 +34,19 @@ public interface Cache<K, V> {
      */
     int size();
 
+    /**
+     * Tells whether a key has a value in the cache. The caches of this package
+     * override it so that, unlike get, it does not count as an access and does
+     * not notify the listener; the default implementation falls back on get.
+     *
+     * @param key
+     *            the key
+     * @return @true if the key has a value in the cache, @false otherwise
+     */
+    default boolean containsKey(final K key) {
+        return get(key) != null;
+    }
+
     /**
      * Tells whether or not the cache is empty.
      *
@@ -0,0 +1,26 @@
+package cachingSystem.interfaces;
+
+import java.io.IOException;
+
+/**
+ * The CacheLoader interface defines how a value missing from a cache is
+ * obtained.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public interface CacheLoader<K, V> {
+
+    /**
+     * Compute or retrieve the value associated with a key.
+     *
+     * @param key
+     *            the key
+     * @return the value, never null
+     * @throws IOException
+     *             if the value could not be read
+     */
+    V load(K key) throws IOException;
+}
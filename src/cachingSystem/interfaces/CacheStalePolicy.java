@@ -23,4 +23,37 @@ public interface CacheStalePolicy<K, V> {
      * @return true if the eldest entry should be removed, false otherwise
      */
     boolean shouldRemoveEldestEntry(Pair<K, V> entry);
+
+    /**
+     * Same as @shouldRemoveEldestEntry(Pair), without wrapping the entry in a
+     * new pair. Caches call this variant on their hot paths, so policies that
+     * are checked often should override it. By default it delegates to the
+     * pair variant.
+     *
+     * @param key
+     *            the key of the eldest entry
+     * @param value
+     *            the value of the eldest entry
+     * @param size
+     *            the number of entries in the cache
+     * @param weight
+     *            the total weight of the entries in the cache
+     * @return true if the eldest entry should be removed, false otherwise
+     */
+    default boolean shouldRemoveEldestEntry(final K key, final V value,
+            final int size, final long weight) {
+        return shouldRemoveEldestEntry(new Pair<K, V>(key, value));
+    }
+
+    /**
+     * Tells whether the policy looks at the value of the eldest entry. Caches
+     * that have to decode a value to hand it over, like the OffHeapCache,
+     * pass null instead when it returns false. By default it returns true.
+     *
+     * @return true if the value is needed, false if the key, the size and the
+     *         weight are enough
+     */
+    default boolean usesEntryValue() {
+        return true;
+    }
 }
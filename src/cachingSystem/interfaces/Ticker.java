@@ -0,0 +1,16 @@
+package cachingSystem.interfaces;
+
+/**
+ * The Ticker interface defines a monotonic time source used by the caches to
+ * stamp their entries.
+ */
+public interface Ticker {
+
+    /**
+     * Return the current time of the source. The value only has meaning when
+     * compared with other values read from the same source.
+     *
+     * @return the time, in nanoseconds
+     */
+    long read();
+}
@@ -0,0 +1,29 @@
+package cachingSystem.interfaces;
+
+/**
+ * The ValueCodec interface defines how values are turned into bytes by caches
+ * that do not keep the value objects.
+ *
+ * @param <V>
+ *            the value type
+ */
+public interface ValueCodec<V> {
+
+    /**
+     * Serialize a value.
+     *
+     * @param value
+     *            the value
+     * @return the bytes of the value
+     */
+    byte[] encode(V value);
+
+    /**
+     * Deserialize a value.
+     *
+     * @param bytes
+     *            the bytes, as returned by @encode
+     * @return the value
+     */
+    V decode(byte[] bytes);
+}
@@ -0,0 +1,25 @@
+package cachingSystem.interfaces;
+
+/**
+ * The Weigher interface defines the weight of a cache entry, used to bound a
+ * cache by total weight (e.g. bytes) instead of number of entries.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public interface Weigher<K, V> {
+
+    /**
+     * Return the weight of an entry. The weight of an entry must not change
+     * while it is stored in the cache.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @return the weight, not negative
+     */
+    long weigh(K key, V value);
+}
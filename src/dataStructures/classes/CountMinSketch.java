@@ -0,0 +1,165 @@
+package dataStructures.classes;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch that estimates how many times a key was seen using a fixed
+ * amount of memory. Every key increments one counter in each row and the
+ * estimate is the smallest of those counters, so it never underestimates.
+ */
+public class CountMinSketch {
+
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_2 = 0x94D049BB133111EBL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+
+    private final int[][] table;
+    private final long[] seeds;
+    private final int indexShift;
+    private final int maxCount;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param width
+     *            the number of counters per row, rounded up to a power of two
+     * @param depth
+     *            the number of rows
+     * @param maxCount
+     *            the value at which a counter stops growing
+     */
+    public CountMinSketch(final int width, final int depth,
+            final int maxCount) {
+        if (width <= 0 || depth <= 0 || maxCount <= 0) {
+            throw new IllegalArgumentException("Invalid sketch size: "
+                    + width + "x" + depth + ", max " + maxCount);
+        }
+
+        int columns = Integer.highestOneBit(width);
+        if (columns < width) {
+            columns <<= 1;
+        }
+
+        table = new int[depth][columns];
+        seeds = new long[depth];
+        for (int row = 0; row < depth; ++row) {
+            seeds[row] = mix((row + 1) * SEED_GAMMA) | 1;
+        }
+
+        indexShift = Long.SIZE - Integer.numberOfTrailingZeros(columns);
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Creates an empty sketch sized for an error bound. With probability
+     * @confidence, an estimate is over the real count by at most @epsilon
+     * times the number of increments.
+     *
+     * @param epsilon
+     *            the relative error, in (0, 1)
+     * @param confidence
+     *            the probability of staying within the error, in (0, 1)
+     * @return the sketch
+     */
+    public static CountMinSketch withErrorBounds(final double epsilon,
+            final double confidence) {
+        if (!(epsilon > 0 && epsilon < 1)
+                || !(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Invalid error bounds: epsilon "
+                    + epsilon + ", confidence " + confidence);
+        }
+
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+
+        return new CountMinSketch(width, depth, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Scrambles the bits of a value.
+     *
+     * @param value
+     *            the value
+     * @return the mixed value
+     */
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> MIX_SHIFT_1)) * MIX_1;
+        z = (z ^ (z >>> MIX_SHIFT_2)) * MIX_2;
+        return z ^ (z >>> MIX_SHIFT_3);
+    }
+
+    /**
+     * Gets the counter of a key in a row.
+     *
+     * @param hash
+     *            the mixed hash of the key
+     * @param row
+     *            the row
+     * @return the column of the counter
+     */
+    private int indexOf(final long hash, final int row) {
+        if (indexShift == Long.SIZE) {
+            return 0;
+        }
+        return (int) ((hash * seeds[row]) >>> indexShift);
+    }
+
+    /**
+     * Counts one more occurrence of a key.
+     *
+     * @param key
+     *            the key
+     */
+    public void increment(final Object key) {
+        long hash = mix(key.hashCode());
+
+        for (int row = 0; row < table.length; ++row) {
+            int column = indexOf(hash, row);
+            if (table[row][column] < maxCount) {
+                ++table[row][column];
+            }
+        }
+    }
+
+    /**
+     * Estimates how many times a key was counted.
+     *
+     * @param key
+     *            the key
+     * @return the estimate, never lower than the real count
+     */
+    public int estimate(final Object key) {
+        long hash = mix(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+
+        for (int row = 0; row < table.length; ++row) {
+            estimate = Math.min(estimate, table[row][indexOf(hash, row)]);
+        }
+
+        return estimate;
+    }
+
+    /**
+     * Halves every counter so that old occurrences weigh less than new ones.
+     */
+    public void halve() {
+        for (int[] row : table) {
+            for (int column = 0; column < row.length; ++column) {
+                row[column] >>>= 1;
+            }
+        }
+    }
+
+    /**
+     * Resets every counter to zero.
+     */
+    public void clear() {
+        for (int[] row : table) {
+            Arrays.fill(row, 0);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package dataStructures.classes;
 
-import java.sql.Timestamp;
-
 /**
  * Class that implements the nodes used in the doubly linked list.
  *
@@ -13,7 +11,7 @@ import java.sql.Timestamp;
 public class Node<K, V> {
     private K key;
     private V value;
-    private Timestamp timeStamp;
+    private long timeStamp;
     private Node<K, V> prev;
     private Node<K, V> next;
 
@@ -21,7 +19,6 @@ public class Node<K, V> {
             final Node<K, V> next) {
         this.key = key;
         this.value = value;
-        timeStamp = new Timestamp(System.currentTimeMillis());
         this.prev = prev;
         this.next = next;
     }
@@ -67,17 +64,20 @@ public class Node<K, V> {
     /**
      * Gets the time the node was added or updated.
      *
-     * @return the time in milliseconds
+     * @return the time in ticks of the cache clock
      */
-    public Timestamp getTimeStamp() {
+    public long getTimeStamp() {
         return timeStamp;
     }
 
     /**
      * Sets the time the node was added or updated.
+     *
+     * @param timeStamp
+     *            the time in ticks of the cache clock
      */
-    public void updateTimeStamp() {
-        timeStamp.setTime(System.currentTimeMillis());
+    public void setTimeStamp(final long timeStamp) {
+        this.timeStamp = timeStamp;
     }
 
     /**
@@ -0,0 +1,317 @@
+package dataStructures.classes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Counts the occurrences of keys and keeps them ordered by count. Keys with the
+ * same count share a bucket, kept sorted in the tie order, and the buckets are
+ * linked in increasing order of count. An increment moves a key to the next
+ * bucket in O(log b), b being the number of keys of the two buckets, and the @n
+ * most frequent keys are read in O(n log b): only those @n keys are visited,
+ * however many keys share the last bucket read.
+ *
+ * The summary can be bounded to a number of keys. When it is full, a new key
+ * takes the place of a key with the smallest count and inherits that count
+ * (Space-Saving): the count of a key is then an overestimate by at most its
+ * error, but the most frequent keys are still found.
+ *
+ * Keys with the same count are listed in the order of a comparator, by
+ * default the natural order of the keys, which must then be Comparable. As in
+ * a TreeMap, the order must be consistent with equals.
+ *
+ * @param <K>
+ *            the key type
+ */
+public class StreamSummary<K> {
+
+    private final int capacity;
+    private final Comparator<? super K> tieOrder;
+    private final Map<K, Counter<K>> counters;
+    private Bucket<K> minBucket;
+    private Bucket<K> maxBucket;
+
+    /**
+     * Creates a summary that keeps every key.
+     */
+    public StreamSummary() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a summary that keeps at most @capacity keys.
+     *
+     * @param capacity
+     *            the maximum number of keys
+     */
+    public StreamSummary(final int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a summary that keeps at most @capacity keys and lists the keys
+     * with the same count in the order of @tieOrder.
+     *
+     * @param capacity
+     *            the maximum number of keys
+     * @param tieOrder
+     *            the order of keys with the same count, or null for the
+     *            natural order
+     */
+    @SuppressWarnings("unchecked")
+    public StreamSummary(final int capacity,
+            final Comparator<? super K> tieOrder) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+        if (tieOrder != null) {
+            this.tieOrder = tieOrder;
+        } else {
+            this.tieOrder = (k1, k2) -> ((Comparable<? super K>) k1).compareTo(k2);
+        }
+        counters = new HashMap<K, Counter<K>>();
+    }
+
+    /**
+     * Gets the maximum number of keys.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of keys counted.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Counts one more occurrence of a key.
+     *
+     * @param key
+     *            the key
+     */
+    public void increment(final K key) {
+        Counter<K> counter = counters.get(key);
+
+        if (counter != null) {
+            moveUp(counter);
+            return;
+        }
+
+        // Full, replace the last key in the tie order with the smallest count
+        if (counters.size() >= capacity) {
+            counter = counters.remove(minBucket.keys.pollLast());
+
+            counter.key = key;
+            counter.error = minBucket.count;
+            minBucket.keys.add(key);
+            counters.put(key, counter);
+            moveUp(counter);
+            return;
+        }
+
+        // New key, in the bucket of count 1
+        counter = new Counter<K>(key);
+        counters.put(key, counter);
+
+        if (minBucket == null || minBucket.count != 1) {
+            Bucket<K> bucket = new Bucket<K>(1, tieOrder);
+            linkBucket(bucket, null, minBucket);
+        }
+        attach(counter, minBucket);
+    }
+
+    /**
+     * Gets the count of a key.
+     *
+     * @param key
+     *            the key
+     * @return the count, or 0 if the key is not in the summary
+     */
+    public int count(final K key) {
+        Counter<K> counter = counters.get(key);
+        return (counter == null) ? 0 : counter.bucket.count;
+    }
+
+    /**
+     * Gets how much the count of a key may be over the real one. It is always
+     * 0 while the summary never was full.
+     *
+     * @param key
+     *            the key
+     * @return the error, or 0 if the key is not in the summary
+     */
+    public int error(final K key) {
+        Counter<K> counter = counters.get(key);
+        return (counter == null) ? 0 : counter.error;
+    }
+
+    /**
+     * Gets the @n keys with the highest counts, in decreasing order of count
+     * and then in the tie order. The buckets are already sorted, so only the
+     * returned keys are visited.
+     *
+     * @param n
+     *            the number of keys
+     * @return the keys
+     */
+    public List<K> top(final int n) {
+        List<K> keys = new ArrayList<K>(Math.max(0, Math.min(n, size())));
+
+        for (Bucket<K> bucket = maxBucket; bucket != null
+                && keys.size() < n; bucket = bucket.lower) {
+            for (K key : bucket.keys) {
+                if (keys.size() == n) {
+                    break;
+                }
+                keys.add(key);
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Removes all the keys.
+     */
+    public void clear() {
+        counters.clear();
+        minBucket = null;
+        maxBucket = null;
+    }
+
+    /**
+     * Moves a counter to the bucket of the next count.
+     *
+     * @param counter
+     *            the counter
+     */
+    private void moveUp(final Counter<K> counter) {
+        Bucket<K> bucket = counter.bucket;
+        Bucket<K> higher = bucket.higher;
+        int count = bucket.count + 1;
+
+        if (higher == null || higher.count != count) {
+            higher = new Bucket<K>(count, tieOrder);
+            linkBucket(higher, bucket, bucket.higher);
+        }
+
+        detach(counter);
+        attach(counter, higher);
+    }
+
+    /**
+     * Inserts a bucket between two neighbouring buckets.
+     *
+     * @param bucket
+     *            the new bucket
+     * @param lower
+     *            the bucket of the smaller count, or null
+     * @param higher
+     *            the bucket of the bigger count, or null
+     */
+    private void linkBucket(final Bucket<K> bucket, final Bucket<K> lower,
+            final Bucket<K> higher) {
+        bucket.lower = lower;
+        bucket.higher = higher;
+
+        if (lower != null) {
+            lower.higher = bucket;
+        } else {
+            minBucket = bucket;
+        }
+
+        if (higher != null) {
+            higher.lower = bucket;
+        } else {
+            maxBucket = bucket;
+        }
+    }
+
+    /**
+     * Adds a counter to a bucket.
+     *
+     * @param counter
+     *            the counter
+     * @param bucket
+     *            the bucket
+     */
+    private void attach(final Counter<K> counter, final Bucket<K> bucket) {
+        counter.bucket = bucket;
+        bucket.keys.add(counter.key);
+    }
+
+    /**
+     * Removes a counter from its bucket, removing the bucket too if it becomes
+     * empty.
+     *
+     * @param counter
+     *            the counter
+     */
+    private void detach(final Counter<K> counter) {
+        Bucket<K> bucket = counter.bucket;
+
+        bucket.keys.remove(counter.key);
+        if (!bucket.keys.isEmpty()) {
+            return;
+        }
+
+        if (bucket.lower != null) {
+            bucket.lower.higher = bucket.higher;
+        } else {
+            minBucket = bucket.higher;
+        }
+        if (bucket.higher != null) {
+            bucket.higher.lower = bucket.lower;
+        } else {
+            maxBucket = bucket.lower;
+        }
+    }
+
+    /**
+     * Keys that have the same count, sorted in the tie order.
+     *
+     * @param <K>
+     *            the key type
+     */
+    private static final class Bucket<K> {
+        private final int count;
+        private final NavigableSet<K> keys;
+        private Bucket<K> lower;
+        private Bucket<K> higher;
+
+        private Bucket(final int count, final Comparator<? super K> tieOrder) {
+            this.count = count;
+            this.keys = new TreeSet<K>(tieOrder);
+        }
+    }
+
+    /**
+     * A key and the bucket of its count.
+     *
+     * @param <K>
+     *            the key type
+     */
+    private static final class Counter<K> {
+        private K key;
+        private int error;
+        private Bucket<K> bucket;
+
+        private Counter(final K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package dataStructures.classes;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel used to expire keys at given deadlines. Every
+ * level has the same number of buckets and each bucket of a level spans a
+ * whole turn of the level below. Advancing the wheel only visits the buckets
+ * that became due since the previous advance; timers from higher levels are
+ * moved to lower levels until they reach their deadline.
+ *
+ * @param <K>
+ *            the key type
+ */
+public class TimerWheel<K> {
+
+    private static final int BUCKET_BITS = 6;
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+    private static final int LEVELS = 5;
+
+    private final Timer<K>[][] wheel;
+    private final Map<K, Timer<K>> timers;
+    private long time;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param currentTime
+     *            the current time, in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(final long currentTime) {
+        wheel = (Timer<K>[][]) new Timer<?>[LEVELS][BUCKETS];
+        for (int level = 0; level < LEVELS; ++level) {
+            for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+                wheel[level][bucket] = Timer.sentinel();
+            }
+        }
+
+        timers = new HashMap<K, Timer<K>>();
+        time = currentTime;
+    }
+
+    /**
+     * Gets the number of scheduled timers.
+     *
+     * @return the number of timers
+     */
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Schedules a key to expire after @duration milliseconds, replacing any
+     * previous timer of the key.
+     *
+     * @param key
+     *            the key
+     * @param currentTime
+     *            the time the duration is measured from
+     * @param duration
+     *            the time to live, in milliseconds
+     */
+    public void schedule(final K key, final long currentTime,
+            final long duration) {
+        Timer<K> timer = timers.get(key);
+
+        if (timer == null) {
+            timer = new Timer<K>(key);
+            timers.put(key, timer);
+        } else {
+            timer.unlink();
+        }
+
+        timer.start = currentTime;
+        timer.duration = duration;
+        timer.deadline = deadline(currentTime, duration);
+        link(timer);
+    }
+
+    /**
+     * Changes the duration of the timer of a key, keeping the time it was
+     * measured from. A deadline that has already passed is expired by the
+     * next advance.
+     *
+     * @param key
+     *            the key
+     * @param duration
+     *            the new time to live, in milliseconds
+     */
+    public void reschedule(final K key, final long duration) {
+        Timer<K> timer = timers.get(key);
+        if (timer == null) {
+            return;
+        }
+
+        timer.unlink();
+        timer.duration = duration;
+        timer.deadline = deadline(timer.start, duration);
+        link(timer);
+    }
+
+    /**
+     * Adds a duration to a time, capped at Long.MAX_VALUE so that a very long
+     * duration never wraps around to a deadline in the past.
+     *
+     * @param currentTime
+     *            the time the duration is measured from
+     * @param duration
+     *            the duration
+     * @return the deadline
+     */
+    private static long deadline(final long currentTime, final long duration) {
+        long deadline = currentTime + duration;
+
+        if (duration > 0 && deadline < currentTime) {
+            return Long.MAX_VALUE;
+        }
+        return deadline;
+    }
+
+    /**
+     * Restarts the timer of a key with its last duration.
+     *
+     * @param key
+     *            the key
+     * @param currentTime
+     *            the time the duration is measured from
+     */
+    public void touch(final K key, final long currentTime) {
+        Timer<K> timer = timers.get(key);
+        if (timer == null) {
+            return;
+        }
+
+        timer.unlink();
+        timer.start = currentTime;
+        timer.deadline = deadline(currentTime, timer.duration);
+        link(timer);
+    }
+
+    /**
+     * Gets the duration the key was scheduled with.
+     *
+     * @param key
+     *            the key
+     * @return the duration, or -1 if the key has no timer
+     */
+    public long getDuration(final K key) {
+        Timer<K> timer = timers.get(key);
+        return (timer == null) ? -1 : timer.duration;
+    }
+
+    /**
+     * Removes the timer of a key.
+     *
+     * @param key
+     *            the key
+     */
+    public void cancel(final K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer != null) {
+            timer.unlink();
+        }
+    }
+
+    /**
+     * Removes all timers.
+     */
+    public void clear() {
+        for (Timer<K> timer : timers.values()) {
+            timer.unlink();
+        }
+        timers.clear();
+    }
+
+    /**
+     * Moves the wheel to @currentTime and hands every key whose deadline has
+     * passed to @expired. The timers of expired keys are removed before the
+     * consumer is called.
+     *
+     * @param currentTime
+     *            the current time, in milliseconds
+     * @param expired
+     *            consumer of the expired keys
+     */
+    public void advance(final long currentTime, final Consumer<K> expired) {
+        long previousTime = time;
+        time = Math.max(time, currentTime);
+
+        for (int level = 0; level < LEVELS; ++level) {
+            int shift = level * BUCKET_BITS;
+            long previousTicks = previousTime >>> shift;
+            long currentTicks = time >>> shift;
+
+            // The current bucket of the first level may hold due timers
+            if (level == 0) {
+                --previousTicks;
+            }
+
+            if (currentTicks <= previousTicks) {
+                break;
+            }
+
+            expireBuckets(level, previousTicks + 1, currentTicks, expired);
+        }
+    }
+
+    /**
+     * Visits the buckets of a level between two ticks.
+     *
+     * @param level
+     *            the level
+     * @param fromTicks
+     *            first tick, inclusive
+     * @param toTicks
+     *            last tick, inclusive
+     * @param expired
+     *            consumer of the expired keys
+     */
+    private void expireBuckets(final int level, final long fromTicks,
+            final long toTicks, final Consumer<K> expired) {
+        long count = Math.min(toTicks - fromTicks + 1, BUCKETS);
+
+        for (long ticks = fromTicks; ticks < fromTicks + count; ++ticks) {
+            Timer<K> sentinel = wheel[level][(int) (ticks & (BUCKETS - 1))];
+
+            // Detach the bucket, timers that are not due are linked again
+            Timer<K> timer = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+
+            while (timer != sentinel) {
+                Timer<K> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+
+                if (timer.deadline <= time) {
+                    timers.remove(timer.key);
+                    expired.accept(timer.key);
+                } else {
+                    link(timer);
+                }
+
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Links a timer into the bucket matching its deadline.
+     *
+     * @param timer
+     *            the timer
+     */
+    private void link(final Timer<K> timer) {
+        long delay = timer.deadline - time;
+        int level = 0;
+
+        // A far deadline from a negative time does not fit in a long
+        if (delay < 0 && timer.deadline > time) {
+            delay = Long.MAX_VALUE;
+        }
+
+        while (level < LEVELS - 1
+                && delay >= (1L << ((level + 1) * BUCKET_BITS))) {
+            ++level;
+        }
+
+        long deadline = Math.max(timer.deadline, time);
+        int bucket = (int) ((deadline >>> (level * BUCKET_BITS))
+                & (BUCKETS - 1));
+        timer.linkBefore(wheel[level][bucket]);
+    }
+
+    /**
+     * Entry of a bucket. Buckets are circular lists with a sentinel timer.
+     *
+     * @param <K>
+     *            the key type
+     */
+    private static final class Timer<K> {
+        private final K key;
+        private long start;
+        private long deadline;
+        private long duration;
+        private Timer<K> prev;
+        private Timer<K> next;
+
+        private Timer(final K key) {
+            this.key = key;
+        }
+
+        /**
+         * Creates the sentinel of an empty bucket.
+         *
+         * @param <K>
+         *            the key type
+         * @return the sentinel
+         */
+        private static <K> Timer<K> sentinel() {
+            Timer<K> sentinel = new Timer<K>(null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        /**
+         * Inserts this timer at the end of the bucket of @sentinel.
+         *
+         * @param sentinel
+         *            the sentinel of the bucket
+         */
+        private void linkBefore(final Timer<K> sentinel) {
+            prev = sentinel.prev;
+            next = sentinel;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        /**
+         * Removes this timer from its bucket.
+         */
+        private void unlink() {
+            if (prev == null) {
+                return;
+            }
+
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
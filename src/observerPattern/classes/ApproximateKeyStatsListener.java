@@ -0,0 +1,136 @@
+package observerPattern.classes;
+
+import java.util.List;
+
+import dataStructures.classes.CountMinSketch;
+import dataStructures.classes.StreamSummary;
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * Version of the KeyStatsListener that uses a fixed amount of memory, whatever
+ * the number of distinct keys. The count of a key is estimated by a count-min
+ * sketch and the most frequent keys are kept in a bounded summary, one of each
+ * per event type.
+ *
+ * An estimate is never below the real count and, with probability
+ * @confidence, is over it by at most @epsilon times the number of events of
+ * that type.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class ApproximateKeyStatsListener<K, V> implements CacheListener<K, V> {
+
+    private final CountMinSketch hitsSketch;
+    private final CountMinSketch missesSketch;
+    private final CountMinSketch putsSketch;
+    private final StreamSummary<K> topHits;
+    private final StreamSummary<K> topMisses;
+    private final StreamSummary<K> topPuts;
+
+    /**
+     * Creates a listener for the given error bounds.
+     *
+     * @param epsilon
+     *            the relative error of the counts, in (0, 1)
+     * @param confidence
+     *            the probability of staying within the error, in (0, 1)
+     * @param maxTopKeys
+     *            the number of frequent keys kept per event type
+     */
+    public ApproximateKeyStatsListener(final double epsilon,
+            final double confidence, final int maxTopKeys) {
+        hitsSketch = CountMinSketch.withErrorBounds(epsilon, confidence);
+        missesSketch = CountMinSketch.withErrorBounds(epsilon, confidence);
+        putsSketch = CountMinSketch.withErrorBounds(epsilon, confidence);
+        topHits = new StreamSummary<K>(maxTopKeys);
+        topMisses = new StreamSummary<K>(maxTopKeys);
+        topPuts = new StreamSummary<K>(maxTopKeys);
+    }
+
+    /**
+     * Get the estimated number of hits for a key.
+     *
+     * @param key
+     *            the key
+     * @return number of hits
+     */
+    public int getKeyHits(final K key) {
+        return hitsSketch.estimate(key);
+    }
+
+    /**
+     * Get the estimated number of misses for a key.
+     *
+     * @param key
+     *            the key
+     * @return number of misses
+     */
+    public int getKeyMisses(final K key) {
+        return missesSketch.estimate(key);
+    }
+
+    /**
+     * Get the estimated number of updates for a key.
+     *
+     * @param key
+     *            the key
+     * @return number of updates
+     */
+    public int getKeyUpdates(final K key) {
+        return putsSketch.estimate(key);
+    }
+
+    /**
+     * Get the @top most hit keys, at most the number of keys kept.
+     *
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    public List<K> getTopHitKeys(final int top) {
+        return topHits.top(top);
+    }
+
+    /**
+     * Get the @top most missed keys, at most the number of keys kept.
+     *
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    public List<K> getTopMissedKeys(final int top) {
+        return topMisses.top(top);
+    }
+
+    /**
+     * Get the @top most updated keys, at most the number of keys kept.
+     *
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    public List<K> getTopUpdatedKeys(final int top) {
+        return topPuts.top(top);
+    }
+
+    @Override
+    public final void onHit(final K key) {
+        hitsSketch.increment(key);
+        topHits.increment(key);
+    }
+
+    @Override
+    public final void onMiss(final K key) {
+        missesSketch.increment(key);
+        topMisses.increment(key);
+    }
+
+    @Override
+    public final void onPut(final K key, final V value) {
+        putsSketch.increment(key);
+        topPuts.increment(key);
+    }
+}
@@ -1,19 +1,92 @@
 package observerPattern.classes;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 import observerPattern.interfaces.CacheListener;
 
 /**
  * The BroadcastListener broadcasts cache events to other listeners that have
  * been added to it.
+ *
+ * Listeners added with addListener are called inline, on the thread of the
+ * cache operation. Listeners added with addAsyncListener are called on a
+ * separate daemon thread: the events are published into a preallocated ring
+ * buffer and consumed in batches, so a slow listener does not add to the
+ * latency of the cache. When the buffer is full, the Backpressure decides what
+ * happens to new events.
  */
-public class BroadcastListener<K, V> implements CacheListener<K, V> {
+public class BroadcastListener<K, V> implements CacheListener<K, V>,
+        AutoCloseable {
+
+    /**
+     * What to do with an event for the async listeners when the buffer is
+     * full.
+     */
+    public enum Backpressure {
+        /**
+         * The event is dropped.
+         */
+        DROP,
+        /**
+         * The cache operation waits until there is room for the event.
+         */
+        BLOCK,
+        /**
+         * Once the buffer is half full, only one in SAMPLE_RATE events is
+         * kept; the event is dropped if the buffer is full.
+         */
+        SAMPLE,
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 12;
+    private static final int SAMPLE_RATE = 8;
 
     private ArrayList<CacheListener<K, V>> listeners;
+    private final List<CacheListener<K, V>> asyncListeners;
+    private final int bufferSize;
+    private final Backpressure backpressure;
+    private volatile Dispatcher<K, V> dispatcher;
 
+    /**
+     * Creates a listener whose async listeners use a buffer of the default
+     * size and block the cache when it is full.
+     */
     public BroadcastListener() {
+        this(DEFAULT_BUFFER_SIZE, Backpressure.BLOCK);
+    }
+
+    /**
+     * Creates a listener with the given settings for its async listeners.
+     *
+     * @param bufferSize
+     *            the number of events in the buffer, rounded up to a power of
+     *            two
+     * @param backpressure
+     *            what to do with an event when the buffer is full
+     */
+    public BroadcastListener(final int bufferSize,
+            final Backpressure backpressure) {
+        if (bufferSize <= 0 || backpressure == null) {
+            throw new IllegalArgumentException("Invalid async settings: "
+                    + bufferSize + ", " + backpressure);
+        }
+
+        int size = Integer.highestOneBit(bufferSize);
+        if (size < bufferSize) {
+            size <<= 1;
+        }
+
         listeners = new ArrayList<CacheListener<K, V>>();
+        asyncListeners = new CopyOnWriteArrayList<CacheListener<K, V>>();
+        this.bufferSize = size;
+        this.backpressure = backpressure;
     }
 
     /**
@@ -26,24 +99,320 @@ public class BroadcastListener<K, V> implements CacheListener<K, V> {
         listeners.add(listener);
     }
 
+    /**
+     * Add a listener that is called on the dispatch thread. The thread is
+     * started by the first async listener.
+     *
+     * @param listener
+     *            the listener
+     */
+    public synchronized void addAsyncListener(
+            final CacheListener<K, V> listener) {
+        asyncListeners.add(listener);
+
+        if (dispatcher == null) {
+            dispatcher = new Dispatcher<K, V>(asyncListeners, bufferSize,
+                    backpressure);
+        }
+    }
+
+    /**
+     * Waits until the async listeners have been called for all the events
+     * published so far.
+     */
+    public void flush() {
+        Dispatcher<K, V> current = dispatcher;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    /**
+     * Gets the number of events that the async listeners did not receive
+     * because of the backpressure.
+     *
+     * @return number of dropped events
+     */
+    public long getDroppedEvents() {
+        Dispatcher<K, V> current = dispatcher;
+        return (current == null) ? 0 : current.dropped.sum();
+    }
+
+    /**
+     * Gets the number of events for which an async listener threw an
+     * exception. The exception is dropped and the other events are still
+     * delivered.
+     *
+     * @return number of failed listener calls
+     */
+    public long getFailedEvents() {
+        Dispatcher<K, V> current = dispatcher;
+        return (current == null) ? 0 : current.failed.sum();
+    }
+
+    /**
+     * Delivers the pending events and stops the dispatch thread. Events that
+     * come after are not sent to the async listeners, until one more is
+     * added.
+     */
+    @Override
+    public synchronized void close() {
+        Dispatcher<K, V> current = dispatcher;
+        dispatcher = null;
+
+        if (current != null) {
+            current.close();
+        }
+    }
+
     @Override
     public final void onHit(final K key) {
-        for (CacheListener<K, V> listener : listeners) {
-            listener.onHit(key);
+        // Indexed loops, an iterator would be allocated on every event
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).onHit(key);
+        }
+
+        Dispatcher<K, V> current = dispatcher;
+        if (current != null) {
+            current.publish(Dispatcher.HIT, key, null);
         }
     }
 
     @Override
     public final void onMiss(final K key) {
-        for (CacheListener<K, V> listener : listeners) {
-            listener.onMiss(key);
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).onMiss(key);
+        }
+
+        Dispatcher<K, V> current = dispatcher;
+        if (current != null) {
+            current.publish(Dispatcher.MISS, key, null);
         }
     }
 
     @Override
     public final void onPut(final K key, final V value) {
-        for (CacheListener<K, V> listener : listeners) {
-            listener.onPut(key, value);
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).onPut(key, value);
+        }
+
+        Dispatcher<K, V> current = dispatcher;
+        if (current != null) {
+            current.publish(Dispatcher.PUT, key, value);
+        }
+    }
+
+    /**
+     * Ring buffer of events with many publishers and one consumer thread.
+     *
+     * A publisher claims a sequence number, writes the event in the slot of
+     * that sequence and then marks the slot as published with the sequence.
+     * The consumer takes every consecutive published event, calls the
+     * listeners for all of them and only then frees their slots. When there
+     * is nothing to consume it spins for a while, then parks until a
+     * publisher wakes it up.
+     *
+     * @param <K>
+     *            the key type
+     * @param <V>
+     *            the value type
+     */
+    private static final class Dispatcher<K, V> {
+        private static final byte HIT = 0;
+        private static final byte MISS = 1;
+        private static final byte PUT = 2;
+
+        private static final int IDLE_SPINS = 100;
+        private static final long FULL_PARK_NANOS = 1_000;
+
+        private final List<CacheListener<K, V>> listeners;
+        private final Backpressure backpressure;
+        private final int mask;
+
+        private final byte[] types;
+        private final Object[] keys;
+        private final Object[] values;
+        private final AtomicLongArray published;
+
+        private final AtomicLong claimed = new AtomicLong();
+        private final AtomicLong consumed = new AtomicLong();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Thread thread;
+        private volatile boolean waiting;
+        private volatile boolean closed;
+
+        private Dispatcher(final List<CacheListener<K, V>> listeners,
+                final int bufferSize, final Backpressure backpressure) {
+            this.listeners = listeners;
+            this.backpressure = backpressure;
+            mask = bufferSize - 1;
+
+            types = new byte[bufferSize];
+            keys = new Object[bufferSize];
+            values = new Object[bufferSize];
+
+            // No slot holds its first sequence yet
+            published = new AtomicLongArray(bufferSize);
+            for (int slot = 0; slot < bufferSize; ++slot) {
+                published.set(slot, slot - bufferSize);
+            }
+
+            thread = new Thread(this::consume, "broadcast-listener");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Publishes an event, or drops it according to the backpressure.
+         *
+         * @param type
+         *            HIT, MISS or PUT
+         * @param key
+         *            the key of the event
+         * @param value
+         *            the value of a PUT event
+         */
+        private void publish(final byte type, final K key, final V value) {
+            long sequence;
+
+            while (true) {
+                sequence = claimed.get();
+                long used = sequence - consumed.get();
+
+                if (backpressure == Backpressure.SAMPLE
+                        && used >= (mask + 1) / 2
+                        && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+                    dropped.increment();
+                    return;
+                }
+
+                if (used > mask) {
+                    if (backpressure != Backpressure.BLOCK || closed) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                    continue;
+                }
+
+                if (claimed.compareAndSet(sequence, sequence + 1)) {
+                    break;
+                }
+            }
+
+            int slot = (int) sequence & mask;
+            types[slot] = type;
+            keys[slot] = key;
+            values[slot] = value;
+            published.set(slot, sequence);
+
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Calls the listeners for one event.
+         *
+         * @param slot
+         *            the slot of the event
+         */
+        @SuppressWarnings("unchecked")
+        private void dispatch(final int slot) {
+            K key = (K) keys[slot];
+            V value = (V) values[slot];
+            byte type = types[slot];
+
+            for (int i = 0; i < listeners.size(); ++i) {
+                CacheListener<K, V> listener = listeners.get(i);
+
+                // A failing listener must not stop the other events
+                try {
+                    if (type == HIT) {
+                        listener.onHit(key);
+                    } else if (type == MISS) {
+                        listener.onMiss(key);
+                    } else {
+                        listener.onPut(key, value);
+                    }
+                } catch (RuntimeException e) {
+                    failed.increment();
+                }
+            }
+
+            keys[slot] = null;
+            values[slot] = null;
+        }
+
+        /**
+         * Body of the dispatch thread.
+         */
+        private void consume() {
+            long next = consumed.get();
+            int idle = 0;
+
+            while (true) {
+                long end = next;
+                while (end - next <= mask
+                        && published.get((int) end & mask) == end) {
+                    ++end;
+                }
+
+                if (end == next) {
+                    if (closed && claimed.get() == next) {
+                        return;
+                    }
+                    if (++idle < IDLE_SPINS) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+
+                    // Look again once publishers can see the flag, an event
+                    // published before it was set would not wake us up
+                    waiting = true;
+                    if (!closed && published.get((int) next & mask) != next) {
+                        LockSupport.park(this);
+                    }
+                    waiting = false;
+                    idle = 0;
+                    continue;
+                }
+
+                idle = 0;
+                for (long sequence = next; sequence < end; ++sequence) {
+                    dispatch((int) sequence & mask);
+                }
+
+                // Free the whole batch at once
+                next = end;
+                consumed.set(next);
+            }
+        }
+
+        /**
+         * Waits until the events claimed so far have been dispatched.
+         */
+        private void flush() {
+            long target = claimed.get();
+
+            while (consumed.get() < target && thread.isAlive()) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+
+        /**
+         * Stops the thread once the pending events are dispatched.
+         */
+        private void close() {
+            closed = true;
+            LockSupport.unpark(thread);
+
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 }
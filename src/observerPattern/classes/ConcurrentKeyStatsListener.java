@@ -0,0 +1,195 @@
+package observerPattern.classes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * Version of the KeyStatsListener that can be notified from several threads at
+ * once. Every key has a striped counter per event type. Once the key is known,
+ * recording an event is a lock free map read and a counter increment.
+ *
+ * The top keys are computed when asked for, from the current counts, so they
+ * are only exact if no events are recorded meanwhile.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class ConcurrentKeyStatsListener<K, V> implements CacheListener<K, V> {
+
+    private static final Function<Object, LongAdder> NEW_COUNTER =
+            key -> new LongAdder();
+
+    private final ConcurrentMap<K, LongAdder> freqHits;
+    private final ConcurrentMap<K, LongAdder> freqMisses;
+    private final ConcurrentMap<K, LongAdder> freqPuts;
+
+    public ConcurrentKeyStatsListener() {
+        freqHits = new ConcurrentHashMap<K, LongAdder>();
+        freqMisses = new ConcurrentHashMap<K, LongAdder>();
+        freqPuts = new ConcurrentHashMap<K, LongAdder>();
+    }
+
+    /**
+     * Adds one to the counter of a key, creating it on the first event.
+     *
+     * @param counters
+     *            the counters of an event type
+     * @param key
+     *            the key
+     */
+    private static <K> void increment(final ConcurrentMap<K, LongAdder> counters,
+            final K key) {
+        LongAdder counter = counters.get(key);
+
+        // Only the first event of a key takes the map lock
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, NEW_COUNTER);
+        }
+        counter.increment();
+    }
+
+    /**
+     * Gets the count of a key.
+     *
+     * @param counters
+     *            the counters of an event type
+     * @param key
+     *            the key
+     * @return the count, or 0 if the key was never seen
+     */
+    private static <K> long count(final ConcurrentMap<K, LongAdder> counters,
+            final K key) {
+        LongAdder counter = counters.get(key);
+        return (counter == null) ? 0 : counter.sum();
+    }
+
+    /**
+     * Gets the @top keys with the highest counts, in decreasing order of count.
+     *
+     * @param counters
+     *            the counters of an event type
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    private static <K> List<K> top(final ConcurrentMap<K, LongAdder> counters,
+            final int top) {
+        List<K> keys = new ArrayList<K>();
+        if (top <= 0) {
+            return keys;
+        }
+
+        // Smallest of the best counts so far on top
+        PriorityQueue<Map.Entry<K, Long>> best = new PriorityQueue<>(top,
+                Map.Entry.comparingByValue());
+
+        for (Map.Entry<K, LongAdder> entry : counters.entrySet()) {
+            long count = entry.getValue().sum();
+
+            if (best.size() < top) {
+                best.add(Map.entry(entry.getKey(), count));
+            } else if (count > best.peek().getValue()) {
+                best.poll();
+                best.add(Map.entry(entry.getKey(), count));
+            }
+        }
+
+        while (!best.isEmpty()) {
+            keys.add(best.poll().getKey());
+        }
+        Collections.reverse(keys);
+        return keys;
+    }
+
+    /**
+     * Get the number of hits for a key.
+     *
+     * @param key
+     *            the key
+     * @return number of hits
+     */
+    public long getKeyHits(final K key) {
+        return count(freqHits, key);
+    }
+
+    /**
+     * Get the number of misses for a key.
+     *
+     * @param key
+     *            the key
+     * @return number of misses
+     */
+    public long getKeyMisses(final K key) {
+        return count(freqMisses, key);
+    }
+
+    /**
+     * Get the number of updates for a key.
+     *
+     * @param key
+     *            the key
+     * @return number of updates
+     */
+    public long getKeyUpdates(final K key) {
+        return count(freqPuts, key);
+    }
+
+    /**
+     * Get the @top most hit keys.
+     *
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    public List<K> getTopHitKeys(final int top) {
+        return top(freqHits, top);
+    }
+
+    /**
+     * Get the @top most missed keys.
+     *
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    public List<K> getTopMissedKeys(final int top) {
+        return top(freqMisses, top);
+    }
+
+    /**
+     * Get the @top most updated keys.
+     *
+     * @param top
+     *            number of top keys
+     * @return the list of keys
+     */
+    public List<K> getTopUpdatedKeys(final int top) {
+        return top(freqPuts, top);
+    }
+
+    @Override
+    public final void onHit(final K key) {
+        increment(freqHits, key);
+    }
+
+    @Override
+    public final void onMiss(final K key) {
+        increment(freqMisses, key);
+    }
+
+    @Override
+    public final void onPut(final K key, final V value) {
+        increment(freqPuts, key);
+    }
+}
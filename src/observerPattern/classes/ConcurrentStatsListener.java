@@ -0,0 +1,73 @@
+package observerPattern.classes;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import observerPattern.interfaces.CacheListener;
+
+/**
+ * Version of the StatsListener that can be notified from several threads at
+ * once. Each instance has its own counters; they are striped, so threads
+ * recording events at the same time rarely write to the same memory.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class ConcurrentStatsListener<K, V> implements CacheListener<K, V> {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+
+    /**
+     * Get the number of hits for the cache.
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of misses for the cache.
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of updates (put operations) for the cache.
+     *
+     * @return number of updates
+     */
+    public long getUpdates() {
+        return puts.sum();
+    }
+
+    /**
+     * Reset all the counters to zero.
+     */
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        puts.reset();
+    }
+
+    @Override
+    public final void onHit(final K key) {
+        hits.increment();
+    }
+
+    @Override
+    public final void onMiss(final K key) {
+        misses.increment();
+    }
+
+    @Override
+    public final void onPut(final K key, final V value) {
+        puts.increment();
+    }
+}
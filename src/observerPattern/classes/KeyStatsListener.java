@@ -1,15 +1,11 @@
 package observerPattern.classes;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
+import dataStructures.classes.StreamSummary;
 import observerPattern.interfaces.CacheListener;
 
 /**
@@ -22,34 +18,31 @@ import observerPattern.interfaces.CacheListener;
  */
 public class KeyStatsListener<K, V> implements CacheListener<K, V> {
 
-    private SortedSet<Map.Entry<K, Integer>> sortedSet;
-    private SortedMap<K, Integer> freqHitMap;
-    private SortedMap<K, Integer> freqMissMap;
-    private SortedMap<K, Integer> freqPutMap;
+    private StreamSummary<K> freqHits;
+    private StreamSummary<K> freqMisses;
+    private StreamSummary<K> freqPuts;
 
     /**
-     * Creates the set that sorts the keys in descending order based on their
-     * values.
+     * Creates a listener that counts every key exactly.
      */
     public KeyStatsListener() {
-        sortedSet = new TreeSet<Map.Entry<K, Integer>>(
-                new Comparator<Map.Entry<K, Integer>>() {
-
-                    @Override
-                    public int compare(final Map.Entry<K, Integer> e1,
-                            final Map.Entry<K, Integer> e2) {
-
-                        if (e1.getValue().compareTo(e2.getValue()) != 0) {
-                            return -1 * e1.getValue().compareTo(e2.getValue());
-                        }
-
-                        return 1;
-                    }
-                });
+        freqHits = new StreamSummary<K>();
+        freqMisses = new StreamSummary<K>();
+        freqPuts = new StreamSummary<K>();
+    }
 
-        freqHitMap = new TreeMap<K, Integer>();
-        freqMissMap = new TreeMap<K, Integer>();
-        freqPutMap = new TreeMap<K, Integer>();
+    /**
+     * Creates a listener that keeps the counts of at most @maxKeys keys per
+     * event type. Beyond that, the least frequent keys are replaced, so the
+     * top keys are still found but the counts may be overestimated.
+     *
+     * @param maxKeys
+     *            the maximum number of keys per event type
+     */
+    public KeyStatsListener(final int maxKeys) {
+        freqHits = new StreamSummary<K>(maxKeys);
+        freqMisses = new StreamSummary<K>(maxKeys);
+        freqPuts = new StreamSummary<K>(maxKeys);
     }
 
     /**
@@ -60,7 +53,7 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return number of hits
      */
     public int getKeyHits(final K key) {
-        return freqHitMap.get(key);
+        return freqHits.count(key);
     }
 
     /**
@@ -71,7 +64,7 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return number of misses
      */
     public int getKeyMisses(final K key) {
-        return freqMissMap.get(key);
+        return freqMisses.count(key);
     }
 
     /**
@@ -82,47 +75,51 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return number of updates
      */
     public int getKeyUpdates(final K key) {
-        return freqPutMap.get(key);
+        return freqPuts.count(key);
     }
 
     /**
-     * Get the @top entries from a sorted set.
+     * Get the @top entries of a map, in descending order of their values.
+     * Entries with the same value keep the order of the map.
      *
      * @param top
      *            number of top keys
      * @param map
      *            map to get entries from
      * @return the list of keys
+     * @deprecated the listener no longer keeps its counts in maps, use
+     *             getTopHitKeys, getTopMissedKeys or getTopUpdatedKeys
      */
+    @Deprecated
     public List<K> makeListFromMap(final int top,
             final SortedMap<K, Integer> map) {
-
-        int count = 0;
+        List<Entry<K, Integer>> entries =
+                new ArrayList<Entry<K, Integer>>(map.entrySet());
         List<K> list = new ArrayList<K>();
 
-        sortedSet.clear();
-        sortedSet.addAll(map.entrySet());
-        for (Entry<K, Integer> entry : sortedSet) {
-            if (count >= top) {
+        // Stable sort, ties stay in the order of the map
+        entries.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        for (Entry<K, Integer> entry : entries) {
+            if (list.size() >= top) {
                 break;
             }
 
             list.add(entry.getKey());
-            ++count;
         }
 
         return list;
     }
 
     /**
-     * Get the @top most hit keys.
+     * Get the @top most hit keys. Keys with the same number of hits are in
+     * the natural order of the keys.
      *
      * @param top
      *            number of top keys
      * @return the list of keys
      */
     public List<K> getTopHitKeys(final int top) {
-        return makeListFromMap(top, freqHitMap);
+        return freqHits.top(top);
     }
 
     /**
@@ -133,7 +130,7 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return the list of keys
      */
     public List<K> getTopMissedKeys(final int top) {
-        return makeListFromMap(top, freqMissMap);
+        return freqMisses.top(top);
     }
 
     /**
@@ -144,42 +141,21 @@ public class KeyStatsListener<K, V> implements CacheListener<K, V> {
      * @return the list of keys
      */
     public List<K> getTopUpdatedKeys(final int top) {
-        return makeListFromMap(top, freqPutMap);
+        return freqPuts.top(top);
     }
 
     @Override
     public final void onHit(final K key) {
-        // Put key in map if does not exist
-        if (!freqHitMap.containsKey(key)) {
-            freqHitMap.put(key, 1);
-            return;
-        }
-
-        // Add 1 to times used in map
-        freqHitMap.put(key, freqHitMap.get(key) + 1);
+        freqHits.increment(key);
     }
 
     @Override
     public final void onMiss(final K key) {
-        // Put key in map if does not exist
-        if (!freqMissMap.containsKey(key)) {
-            freqMissMap.put(key, 1);
-            return;
-        }
-
-        // Add 1 to times used in map
-        freqMissMap.put(key, freqMissMap.get(key) + 1);
+        freqMisses.increment(key);
     }
 
     @Override
     public final void onPut(final K key, final V value) {
-        // Put key in map if does not exist
-        if (!freqPutMap.containsKey(key)) {
-            freqPutMap.put(key, 1);
-            return;
-        }
-
-        // Add 1 to times used in map
-        freqPutMap.put(key, freqPutMap.get(key) + 1);
+        freqPuts.increment(key);
     }
 }
@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SimulatorTest {
+
+    @TempDir
+    Path directory;
+
+    private static Simulator.Configuration replay(final String configuration,
+            final String trace) throws IOException {
+        Simulator.Configuration result =
+                Simulator.parseConfiguration(configuration);
+        Simulator.replay(new BufferedReader(new StringReader(trace)), result);
+        return result;
+    }
+
+    @Test
+    void capacityEvictionsAreCounted() throws IOException {
+        Simulator.Configuration result = replay("LRU:2",
+                "# comment\na\nget b\nput c 1\nget c\n\nget a\nget c\n");
+
+        assertEquals(5, result.getRequests());
+        assertEquals(4, result.getMisses());
+        assertEquals(2, result.getEvictions());
+        assertEquals(0, result.getExpirations());
+    }
+
+    @Test
+    void delaysExpireEntriesOnTheVirtualClock() throws IOException {
+        Simulator.Configuration result = replay("TIME:100",
+                "get a\nget a\ndelay 150\nget a\nget b\ndelay 50\nget a\n");
+
+        assertEquals(5, result.getRequests());
+        assertEquals(3, result.getMisses());
+        assertEquals(1, result.getExpirations());
+        assertEquals(0, result.getEvictions());
+
+        // The expiration time is not shown as a capacity
+        assertTrue(Simulator.formatResults(result).startsWith("TIME"));
+        assertTrue(Simulator.formatResults(result).contains(" 100ms "));
+    }
+
+    @Test
+    void gzippedTracesAreReplayed() throws IOException {
+        Path trace = directory.resolve("trace.gz");
+        try (OutputStream output =
+                new GZIPOutputStream(Files.newOutputStream(trace))) {
+            output.write("get x\nget y\nget x\n"
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        Simulator.Configuration result =
+                Simulator.parseConfiguration("FIFO:1");
+        try (BufferedReader reader = Simulator.openTrace(trace)) {
+            Simulator.replay(reader, result);
+        }
+
+        assertEquals(3, result.getRequests());
+        assertEquals(3, result.getMisses());
+        assertEquals(2, result.getEvictions());
+    }
+
+    @Test
+    void invalidConfigurationsFailBeforeReplaying() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Simulator.parseConfiguration("LRU"));
+        assertThrows(IllegalArgumentException.class,
+                () -> Simulator.parseConfiguration("NOPE:10"));
+        assertThrows(IllegalArgumentException.class,
+                () -> Simulator.parseConfiguration("OFF_HEAP:10"));
+    }
+}
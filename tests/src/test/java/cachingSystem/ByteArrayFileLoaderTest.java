@@ -0,0 +1,45 @@
+package cachingSystem;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ByteArrayFileLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsTheWholeFile() throws IOException {
+        Path file = directory.resolve("data");
+        byte[] content = {1, 2, 3, 4, 5};
+        Files.write(file, content);
+
+        assertArrayEquals(content,
+                new ByteArrayFileLoader().load(file.toString()));
+    }
+
+    @Test
+    void fullBufferIsNotCopied() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {1, 2, 3});
+
+        assertSame(buffer.array(), ByteArrayFileLoader.toArray(buffer));
+    }
+
+    @Test
+    void shortReadKeepsOnlyTheBytesRead() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(new byte[] {7, 8, 9});
+        buffer.flip();
+
+        assertArrayEquals(new byte[] {7, 8, 9},
+                ByteArrayFileLoader.toArray(buffer));
+    }
+}
@@ -0,0 +1,71 @@
+package cachingSystem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cachingSystem.classes.LRUCache;
+import cachingSystem.classes.LoadingCache;
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+class FileWatcherTest {
+
+    private static final int CACHED_KEYS = 10;
+    private static final int PUTS = 100_000;
+
+    @Test
+    void sweepsKeysThatLeftTheCache(@TempDir final Path directory) {
+        Set<String> cached = ConcurrentHashMap.newKeySet();
+
+        try (FileWatcher watcher = new FileWatcher((key, exists) -> {
+        }, cached::contains)) {
+            for (int i = 0; i < PUTS; ++i) {
+                String key = directory.resolve("file" + i).toString();
+
+                // Only the last keys stay in the cache
+                cached.add(key);
+                cached.remove(directory.resolve("file" + (i - CACHED_KEYS))
+                        .toString());
+                watcher.watch(key);
+            }
+
+            assertTrue(watcher.watchedKeys() < PUTS / 10,
+                    "watched " + watcher.watchedKeys());
+        }
+    }
+
+    @Test
+    void refreshDoesNotBringBackEvictedKeys() {
+        LRUCache<String, String> cache = new LRUCache<>();
+        cache.setCacheListener(new BroadcastListener<String, String>());
+        cache.setStalePolicy(new CacheStalePolicy<String, String>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(
+                    final Pair<String, String> entry) {
+                return cache.size() > 1;
+            }
+        });
+        LoadingCache<String, String> loading = new LoadingCache<>(cache,
+                key -> key + "!");
+
+        loading.put("a", "old");
+        loading.put("b", "old");
+        assertFalse(loading.containsKey("a"));
+
+        loading.refresh("a");
+        assertFalse(loading.containsKey("a"));
+        assertEquals("old", loading.getIfPresent("b"));
+
+        loading.refresh("b");
+        assertEquals("b!", loading.getIfPresent("b"));
+    }
+}
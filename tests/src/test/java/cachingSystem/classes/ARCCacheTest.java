@@ -0,0 +1,64 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import observerPattern.classes.BroadcastListener;
+
+class ARCCacheTest {
+
+    private static ARCCache<String, Integer> arcCache(final int capacity) {
+        ARCCache<String, Integer> cache = new ARCCache<>(capacity);
+        cache.setCacheListener(new BroadcastListener<String, Integer>());
+        return cache;
+    }
+
+    @Test
+    void ghostHitsAdaptTheTargetOfT1() {
+        ARCCache<String, Integer> cache = arcCache(2);
+
+        // a is in T2, b is pushed from T1 to B1 by c
+        cache.put("a", 1);
+        cache.get("a");
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertFalse(cache.containsKey("b"));
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.getTargetT1());
+
+        // A B1 hit grows T1, and T2 gives up a to B2
+        cache.put("b", 2);
+        assertEquals(1, cache.getTargetT1());
+        assertTrue(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+        assertFalse(cache.containsKey("a"));
+
+        // A B2 hit shrinks it again
+        cache.put("a", 1);
+        assertEquals(0, cache.getTargetT1());
+        assertEquals(1, cache.get("a").intValue());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void scanDoesNotEvictFrequentEntries() {
+        ARCCache<String, Integer> cache = arcCache(4);
+
+        cache.put("hot1", 1);
+        cache.put("hot2", 2);
+        cache.get("hot1");
+        cache.get("hot2");
+
+        for (int i = 0; i < 100; ++i) {
+            cache.put("scan" + i, i);
+        }
+
+        assertTrue(cache.containsKey("hot1"));
+        assertTrue(cache.containsKey("hot2"));
+        assertEquals(4, cache.size());
+    }
+}
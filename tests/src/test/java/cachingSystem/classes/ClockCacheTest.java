@@ -0,0 +1,112 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+class ClockCacheTest {
+
+    private static ClockCache<Integer, Integer> clockCache(final int slots,
+            final int capacity) {
+        ClockCache<Integer, Integer> cache = new ClockCache<>(slots);
+        cache.setCacheListener(new BroadcastListener<Integer, Integer>());
+        cache.setStalePolicy(new CacheStalePolicy<Integer, Integer>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(
+                    final Pair<Integer, Integer> entry) {
+                throw new AssertionError("Pair variant called");
+            }
+
+            @Override
+            public boolean shouldRemoveEldestEntry(final Integer key,
+                    final Integer value, final int size, final long weight) {
+                return size > capacity;
+            }
+        });
+        return cache;
+    }
+
+    @Test
+    void referencedEntriesGetASecondChance() {
+        ClockCache<Integer, Integer> cache = clockCache(3, 3);
+
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+        cache.put(4, 4);
+
+        assertTrue(cache.containsKey(1));
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(3));
+        assertTrue(cache.containsKey(4));
+    }
+
+    @Test
+    void stalePolicySmallerThanTheRing() {
+        ClockCache<Integer, Integer> cache = clockCache(10, 4);
+
+        for (int i = 0; i < 100; ++i) {
+            cache.put(i, i);
+            cache.get(i - 1);
+            assertTrue(cache.size() <= 4, "size " + cache.size());
+        }
+
+        assertEquals(4, cache.size());
+        assertTrue(cache.containsKey(99));
+
+        // Keys and slots stay consistent after the policy evictions
+        int present = 0;
+        for (int i = 0; i < 100; ++i) {
+            if (cache.remove(i) != null) {
+                ++present;
+            }
+        }
+        assertEquals(4, present);
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    void stalePolicyIsAskedAboutTheEvictedEntry() {
+        List<Integer> asked = new ArrayList<>();
+        ClockCache<Integer, Integer> cache = new ClockCache<>(5);
+        cache.setCacheListener(new BroadcastListener<Integer, Integer>());
+        cache.setStalePolicy(new CacheStalePolicy<Integer, Integer>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(
+                    final Pair<Integer, Integer> entry) {
+                throw new AssertionError("Pair variant called");
+            }
+
+            @Override
+            public boolean shouldRemoveEldestEntry(final Integer key,
+                    final Integer value, final int size, final long weight) {
+                asked.add(key);
+                return size > 3;
+            }
+        });
+
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+        asked.clear();
+
+        // 1 is under the hand but referenced, so 2 is the one evicted
+        cache.put(4, 4);
+
+        assertEquals(List.of(2, 3), asked);
+        assertTrue(cache.containsKey(1));
+        assertFalse(cache.containsKey(2));
+        assertEquals(Integer.valueOf(3), cache.getEldestEntry().getKey());
+    }
+}
@@ -0,0 +1,105 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+class CompactLRUCacheTest {
+
+    /**
+     * Key with a chosen hash code, to build long probe sequences.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        private Key(final int id, final int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key && ((Key) other).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static CompactLRUCache<Key, Integer> compactCache() {
+        CompactLRUCache<Key, Integer> cache = new CompactLRUCache<>(4);
+        cache.setCacheListener(new BroadcastListener<Key, Integer>());
+        return cache;
+    }
+
+    @Test
+    void removalInsideAProbeSequenceKeepsTheOthers() {
+        CompactLRUCache<Key, Integer> cache = compactCache();
+        Key[] keys = new Key[12];
+
+        // One cluster of colliding keys, with other keys inside it
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = new Key(i, (i % 3 == 0) ? i : 7);
+            cache.put(keys[i], i);
+        }
+
+        for (int i = 1; i < keys.length; i += 2) {
+            assertEquals(i, cache.remove(keys[i]).intValue());
+        }
+
+        for (int i = 0; i < keys.length; ++i) {
+            if (i % 2 == 0) {
+                assertEquals(i, cache.get(keys[i]).intValue());
+            } else {
+                assertNull(cache.get(keys[i]));
+            }
+        }
+        assertEquals(keys.length / 2, cache.size());
+    }
+
+    @Test
+    void matchesALinkedHashMap() {
+        CompactLRUCache<Key, Integer> cache = compactCache();
+        Map<Key, Integer> model = new LinkedHashMap<>(16, 0.75f, true);
+        Random random = new Random(7);
+
+        for (int op = 0; op < 20_000; ++op) {
+            int id = random.nextInt(64);
+            Key key = new Key(id, id % 5);
+
+            switch (random.nextInt(3)) {
+            case 0:
+                cache.put(key, op);
+                model.put(key, op);
+                break;
+            case 1:
+                assertEquals(model.get(key), cache.get(key));
+                break;
+            default:
+                assertEquals(model.remove(key), cache.remove(key));
+                break;
+            }
+
+            assertEquals(model.size(), cache.size());
+            Pair<Key, Integer> eldest = cache.getEldestEntry();
+            Iterator<Key> iterator = model.keySet().iterator();
+            if (iterator.hasNext()) {
+                assertEquals(iterator.next(), eldest.getKey());
+            } else {
+                assertNull(eldest);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.ConcurrentStatsListener;
+
+class ConcurrentLRUCacheTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 20_000;
+    private static final int KEYS = 1_000;
+    private static final int CAPACITY = 100;
+
+    private static <K, V> CacheStalePolicy<K, V> capacity(final int capacity) {
+        return new CacheStalePolicy<K, V>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(final Pair<K, V> entry) {
+                throw new AssertionError("Pair variant called");
+            }
+
+            @Override
+            public boolean shouldRemoveEldestEntry(final K key, final V value,
+                    final int size, final long weight) {
+                return size > capacity;
+            }
+        };
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(4);
+        cache.setStalePolicy(capacity(3));
+
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        cache.get(1);
+        cache.put(4, "d");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+        assertEquals("d", cache.get(4));
+    }
+
+    @Test
+    void sampledEvictionKeepsTheBoundAndTheHotKey() {
+        VirtualTicker ticker = new VirtualTicker();
+        ConcurrentLRUCache<Integer, Integer> cache =
+                new ConcurrentLRUCache<>(64, false, ticker);
+        cache.setStalePolicy(capacity(16));
+
+        cache.put(-1, -1);
+        for (int i = 0; i < 1_000; ++i) {
+            ticker.advance(1, TimeUnit.MILLISECONDS);
+            cache.put(i, i);
+            ticker.advance(1, TimeUnit.MILLISECONDS);
+            assertEquals(Integer.valueOf(-1), cache.get(-1));
+            assertTrue(cache.size() <= 16, "size " + cache.size());
+        }
+
+        // Entries evicted from sampled segments were not the newest ones
+        assertEquals(16, cache.size());
+        assertEquals(Integer.valueOf(999), cache.get(999));
+    }
+
+    @Test
+    void concurrentAccessKeepsBoundAndValues() throws Exception {
+        checkConcurrentAccess(false);
+    }
+
+    @Test
+    void concurrentAccessWithBufferedReads() throws Exception {
+        checkConcurrentAccess(true);
+    }
+
+    private static void checkConcurrentAccess(final boolean bufferedReads)
+            throws Exception {
+        ConcurrentLRUCache<Integer, Integer> cache =
+                new ConcurrentLRUCache<>(THREADS, bufferedReads);
+        ConcurrentStatsListener<Integer, Integer> stats =
+                new ConcurrentStatsListener<>();
+        cache.setStalePolicy(capacity(CAPACITY));
+        cache.setCacheListener(stats);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; ++i) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                    for (int op = 0; op < OPERATIONS; ++op) {
+                        int key = random.nextInt(KEYS);
+                        Integer value = cache.get(key);
+
+                        if (value == null) {
+                            cache.put(key, -key);
+                        } else {
+                            assertEquals(-key, value.intValue());
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int size = cache.size();
+        assertTrue(size <= CAPACITY, "size " + size);
+        assertEquals((long) THREADS * OPERATIONS,
+                stats.getHits() + stats.getMisses());
+
+        // The counter matches the entries that are really there
+        int present = 0;
+        for (int key = 0; key < KEYS; ++key) {
+            if (cache.remove(key) != null) {
+                ++present;
+            }
+        }
+        assertEquals(size, present);
+        assertEquals(0, cache.size());
+        assertTrue(cache.isEmpty());
+    }
+}
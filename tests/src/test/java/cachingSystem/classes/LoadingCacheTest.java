@@ -0,0 +1,110 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import cachingSystem.interfaces.CacheLoader;
+import observerPattern.classes.BroadcastListener;
+
+class LoadingCacheTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2_000;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static <V> LoadingCache<String, V> loadingCache(
+            final CacheLoader<String, V> loader) {
+        LRUCache<String, V> cache = new LRUCache<>();
+        cache.setCacheListener(new BroadcastListener<String, V>());
+        return new LoadingCache<>(cache, loader);
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            for (int round = 0; round < ROUNDS; ++round) {
+                AtomicInteger loads = new AtomicInteger();
+                LoadingCache<String, String> cache = loadingCache(key -> {
+                    loads.incrementAndGet();
+                    return key;
+                });
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> gets = new ArrayList<>();
+
+                for (int i = 0; i < THREADS; ++i) {
+                    gets.add(executor.submit(() -> {
+                        start.await();
+                        return cache.get("key");
+                    }));
+                }
+
+                start.countDown();
+                for (Future<String> get : gets) {
+                    assertEquals("key", get.get());
+                }
+                assertEquals(1, loads.get(), "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loaderErrorReachesEveryWaiter() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache<String, String> cache = loadingCache(key -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("loader failed");
+        });
+
+        CompletableFuture<String> first = cache.getAsync("key");
+        loading.await();
+        CompletableFuture<String> second = cache.getAsync("key");
+        release.countDown();
+
+        for (CompletableFuture<String> get : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> get.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+        assertThrows(AssertionError.class, () -> cache.get("key"));
+        cache.close();
+    }
+
+    @Test
+    void closeShutsDownTheDefaultPool() throws Exception {
+        LoadingCache<String, String> cache = loadingCache(key -> key);
+
+        assertEquals("a", cache.getAsync("a").get());
+        cache.close();
+
+        // Hits still work, misses cannot be loaded asynchronously
+        assertEquals("a", cache.getAsync("a").get());
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> cache.getAsync("b").get());
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+}
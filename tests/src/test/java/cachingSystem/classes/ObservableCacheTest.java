@@ -0,0 +1,100 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import cachingSystem.interfaces.Weigher;
+import observerPattern.classes.BroadcastListener;
+
+class ObservableCacheTest {
+
+    private static final long MAX_WEIGHT = 10;
+    private static final Weigher<String, String> LENGTH =
+            (key, value) -> value.length();
+
+    private static <C extends ObservableCache<String, String>> C weighted(
+            final C cache) {
+        cache.setCacheListener(new BroadcastListener<String, String>());
+        cache.setWeigher(LENGTH, MAX_WEIGHT);
+        return cache;
+    }
+
+    /**
+     * Fills the cache with five entries of weight 2, then inserts one of
+     * weight 7 that only fits once four of them are gone.
+     */
+    private static void checkLargeInsert(
+            final ObservableCache<String, String> cache) {
+        for (int i = 0; i < 5; ++i) {
+            cache.put("k" + i, "..");
+        }
+        assertEquals(10, cache.getTotalWeight());
+
+        cache.put("large", ".......");
+
+        assertEquals(2, cache.size());
+        assertEquals(9, cache.getTotalWeight());
+        assertTrue(cache.containsKey("large"));
+        assertTrue(cache.containsKey("k4"));
+        for (int i = 0; i < 4; ++i) {
+            assertFalse(cache.containsKey("k" + i));
+        }
+
+        cache.remove("large");
+        cache.remove("k4");
+        assertEquals(0, cache.getTotalWeight());
+    }
+
+    @Test
+    void largeInsertEvictsSeveralLRUEntries() {
+        checkLargeInsert(weighted(new LRUCache<String, String>()));
+    }
+
+    @Test
+    void largeInsertEvictsSeveralFIFOEntries() {
+        checkLargeInsert(weighted(new ObservableFIFOCache<String, String>()));
+    }
+
+    @Test
+    void largeInsertEvictsSeveralConcurrentEntries() {
+        checkLargeInsert(weighted(new ConcurrentLRUCache<String, String>(1)));
+    }
+
+    @Test
+    void updatesChangeTheWeight() {
+        LRUCache<String, String> cache = weighted(new LRUCache<>());
+        cache.put("a", "...");
+        cache.put("b", "...");
+        cache.put("a", ".");
+        assertEquals(4, cache.getTotalWeight());
+
+        // Growing an entry evicts the eldest one
+        cache.put("a", "..........");
+        assertEquals(10, cache.getTotalWeight());
+        assertFalse(cache.containsKey("b"));
+    }
+
+    @Test
+    void weigherOnANonEmptyCacheIsRejected() {
+        LRUCache<String, String> cache = new LRUCache<>();
+        cache.setCacheListener(new BroadcastListener<String, String>());
+        cache.put("a", "value");
+
+        assertThrows(IllegalStateException.class,
+                () -> cache.setWeigher(LENGTH, MAX_WEIGHT));
+    }
+
+    @Test
+    void cachesWithoutWeightSupportRejectTheWeigher() {
+        assertThrows(IllegalStateException.class,
+                () -> new ClockCache<String, String>(4)
+                        .setWeigher(LENGTH, MAX_WEIGHT));
+        assertThrows(IllegalStateException.class,
+                () -> new ARCCache<String, String>(4)
+                        .setWeigher(LENGTH, MAX_WEIGHT));
+    }
+}
@@ -0,0 +1,130 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import cachingSystem.interfaces.ValueCodec;
+import dataStructures.classes.Pair;
+
+class OffHeapCacheTest {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int CAPACITY = 4;
+
+    /**
+     * String codec that counts the decoded values.
+     */
+    private static final class CountingCodec implements ValueCodec<String> {
+        private final StringCodec codec = new StringCodec();
+        private int decoded;
+
+        @Override
+        public byte[] encode(final String value) {
+            return codec.encode(value);
+        }
+
+        @Override
+        public String decode(final byte[] bytes) {
+            ++decoded;
+            return codec.decode(bytes);
+        }
+    }
+
+    private static CacheStalePolicy<Integer, String> capacity(
+            final boolean usesValue) {
+        return new CacheStalePolicy<Integer, String>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(
+                    final Pair<Integer, String> entry) {
+                throw new AssertionError("Pair variant called");
+            }
+
+            @Override
+            public boolean shouldRemoveEldestEntry(final Integer key,
+                    final String value, final int size, final long weight) {
+                assertEquals(usesValue, value != null);
+                return size > CAPACITY;
+            }
+
+            @Override
+            public boolean usesEntryValue() {
+                return usesValue;
+            }
+        };
+    }
+
+    private static String repeat(final char c, final int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void sizeBoundDoesNotDecodeValues() {
+        CountingCodec codec = new CountingCodec();
+        OffHeapCache<Integer, String> cache = new OffHeapCache<>(codec,
+                1 << 12, BLOCK_SIZE);
+        cache.setStalePolicy(capacity(false));
+
+        for (int i = 0; i < 10 * CAPACITY; ++i) {
+            cache.put(i, "value" + i);
+        }
+
+        assertEquals(0, codec.decoded);
+        assertEquals(CAPACITY, cache.size());
+        assertFalse(cache.containsKey(0));
+        assertEquals("value39", cache.get(39));
+    }
+
+    @Test
+    void valuePolicyStillGetsTheValue() {
+        CountingCodec codec = new CountingCodec();
+        OffHeapCache<Integer, String> cache = new OffHeapCache<>(codec,
+                1 << 12, BLOCK_SIZE);
+        cache.setStalePolicy(capacity(true));
+
+        for (int i = 0; i < 2 * CAPACITY; ++i) {
+            cache.put(i, "value" + i);
+        }
+
+        assertTrue(codec.decoded > 0);
+        assertEquals(CAPACITY, cache.size());
+    }
+
+    @Test
+    void valuesSpanningBlocksSurviveReuse() {
+        OffHeapCache<Integer, String> cache = new OffHeapCache<>(
+                new StringCodec(), 8 * BLOCK_SIZE, BLOCK_SIZE);
+
+        // 3 blocks each, the third put evicts the first value
+        String a = repeat('a', 2 * BLOCK_SIZE + 1);
+        String b = repeat('b', 3 * BLOCK_SIZE);
+        String c = repeat('c', 3 * BLOCK_SIZE - 1);
+        cache.put(1, a);
+        cache.put(2, b);
+        cache.put(3, c);
+
+        assertNull(cache.get(1));
+        assertEquals(b, cache.get(2));
+        assertEquals(c, cache.get(3));
+
+        // Shrinking and growing a value frees and takes blocks
+        cache.put(2, "");
+        cache.put(4, repeat('d', 5 * BLOCK_SIZE));
+        assertEquals("", cache.get(2));
+        assertNull(cache.get(3));
+        assertEquals(repeat('d', 5 * BLOCK_SIZE), cache.get(4));
+        assertEquals(5 * BLOCK_SIZE, cache.getUsedBytes());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.put(5, repeat('e', 9 * BLOCK_SIZE)));
+    }
+}
@@ -0,0 +1,114 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import observerPattern.classes.BroadcastListener;
+
+class S3FIFOCacheTest {
+
+    private static S3FIFOCache<String, String> s3fifoCache(
+            final int capacity) {
+        S3FIFOCache<String, String> cache = new S3FIFOCache<>(capacity);
+        cache.setCacheListener(new BroadcastListener<String, String>());
+        return cache;
+    }
+
+    /**
+     * Puts new keys read only once. They go through the small queue, so
+     * entries of the main queue are not evicted by them.
+     */
+    private static void flood(final S3FIFOCache<String, String> cache,
+            final String prefix, final int keys) {
+        for (int i = 0; i < keys; ++i) {
+            cache.put(prefix + i, "value");
+        }
+    }
+
+    private static void put(final S3FIFOCache<String, String> cache,
+            final String... keys) {
+        for (String key : keys) {
+            cache.put(key, "value");
+        }
+    }
+
+    private static void get(final S3FIFOCache<String, String> cache,
+            final String... keys) {
+        for (String key : keys) {
+            cache.get(key);
+        }
+    }
+
+    @Test
+    void smallEntriesReadAgainMoveToMain() {
+        S3FIFOCache<String, String> cache = s3fifoCache(10);
+        flood(cache, "k", 10);
+        get(cache, "k0");
+
+        flood(cache, "f", 20);
+
+        assertTrue(cache.containsKey("k0"));
+        for (int i = 1; i < 10; ++i) {
+            assertFalse(cache.containsKey("k" + i));
+        }
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void ghostHitGoesStraightToMain() {
+        // Small queue of 1, ghost queue of 9
+        S3FIFOCache<String, String> cache = s3fifoCache(10);
+        flood(cache, "k", 10);
+
+        // Read once, k0..k9 leave the small queue as ghosts, k0 is forgotten
+        flood(cache, "f", 10);
+        assertFalse(cache.containsKey("k5"));
+
+        put(cache, "k5", "k0");
+        flood(cache, "g", 20);
+
+        assertTrue(cache.containsKey("k5"));
+        assertFalse(cache.containsKey("k0"));
+    }
+
+    @Test
+    void mainEntriesArePutBackWhileTheyHaveFrequency() {
+        // Small queue of 1, so the main queue is evicted once it is empty
+        S3FIFOCache<String, String> cache = s3fifoCache(4);
+        put(cache, "a", "b", "c", "d");
+        get(cache, "a", "b", "c", "d");
+
+        // All four move to main, then a leaves it
+        put(cache, "e");
+        assertFalse(cache.containsKey("a"));
+
+        // b gets two more passes and c one, d is evicted first
+        get(cache, "b", "b", "c", "e");
+        put(cache, "f");
+        assertFalse(cache.containsKey("d"));
+        assertTrue(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+
+        get(cache, "f");
+        put(cache, "g");
+        assertFalse(cache.containsKey("e"));
+
+        get(cache, "g");
+        put(cache, "h");
+        assertFalse(cache.containsKey("c"));
+        assertTrue(cache.containsKey("b"));
+
+        // The decremented frequency of b is used up after f and g leave
+        get(cache, "h");
+        put(cache, "i");
+        get(cache, "i");
+        put(cache, "j");
+        get(cache, "j");
+        put(cache, "k");
+        assertFalse(cache.containsKey("b"));
+        assertEquals(4, cache.size());
+    }
+}
@@ -0,0 +1,84 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import observerPattern.classes.BroadcastListener;
+
+class TimeAwareCacheTest {
+
+    private long nanos;
+
+    private TimeAwareCache<String, String> timeAwareCache() {
+        TimeAwareCache<String, String> cache =
+                new TimeAwareCache<>(() -> nanos);
+        cache.setCacheListener(new BroadcastListener<String, String>());
+        cache.setExpireMode(TimeAwareCache.ExpireMode.AFTER_WRITE);
+        cache.setExpirePolicy(100);
+        return cache;
+    }
+
+    private void sleep(final long millis) {
+        nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void entryExpirationOnlyAppliesToItsPut() {
+        TimeAwareCache<String, String> cache = timeAwareCache();
+
+        cache.put("short", "s", 10);
+        cache.put("default", "d");
+
+        sleep(50);
+        assertNull(cache.get("short"));
+        assertEquals("d", cache.get("default"));
+
+        sleep(60);
+        assertNull(cache.get("default"));
+    }
+
+    @Test
+    void putWithoutExpirationUsesThePolicyAgain() {
+        TimeAwareCache<String, String> cache = timeAwareCache();
+
+        cache.put("key", "v1", 1_000);
+        cache.put("key", "v2");
+
+        sleep(150);
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void newPolicyAppliesToStoredEntries() {
+        TimeAwareCache<String, String> cache = timeAwareCache();
+
+        cache.put("default", "d");
+        cache.put("own", "o", 100);
+        sleep(60);
+
+        // Aged 60ms already, so both expire 20ms from now
+        cache.setExpirePolicy(80);
+        sleep(20);
+        assertNull(cache.get("default"));
+        assertEquals("o", cache.get("own"));
+
+        cache.setExpirePolicy(1_000);
+        cache.put("late", "l");
+        sleep(500);
+        assertEquals("l", cache.get("late"));
+        assertNull(cache.get("own"));
+    }
+
+    @Test
+    void rejectsNegativeEntryExpiration() {
+        TimeAwareCache<String, String> cache = timeAwareCache();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.put("key", "value", -1));
+    }
+}
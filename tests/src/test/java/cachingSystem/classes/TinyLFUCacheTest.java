@@ -0,0 +1,134 @@
+package cachingSystem.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import cachingSystem.interfaces.CacheStalePolicy;
+import dataStructures.classes.Pair;
+import observerPattern.classes.BroadcastListener;
+
+class TinyLFUCacheTest {
+
+    private static final int CAPACITY = 100;
+    private static final int HOT_KEYS = 50;
+    private static final int SCAN_KEYS = 10_000;
+
+    private static <C extends ObservableCache<String, String>> C listened(
+            final C cache) {
+        cache.setCacheListener(new BroadcastListener<String, String>());
+        return cache;
+    }
+
+    /**
+     * Warms up the hot keys, then reads once each of many new keys, putting
+     * them after the miss like the FileCache does.
+     */
+    private static void hotSetThenScan(
+            final ObservableCache<String, String> cache) {
+        for (int i = 0; i < HOT_KEYS; ++i) {
+            cache.put("hot" + i, "value");
+        }
+        cache.put("cold", "value");
+        for (int round = 0; round < 3; ++round) {
+            for (int i = 0; i < HOT_KEYS; ++i) {
+                cache.get("hot" + i);
+            }
+        }
+
+        for (int i = 0; i < SCAN_KEYS; ++i) {
+            if (cache.get("scan" + i) == null) {
+                cache.put("scan" + i, "value");
+            }
+        }
+    }
+
+    @Test
+    void scanDoesNotFlushTheHotSet() {
+        TinyLFUCache<String, String> cache =
+                listened(new TinyLFUCache<>(CAPACITY));
+        hotSetThenScan(cache);
+
+        assertEquals(CAPACITY, cache.size());
+        for (int i = 0; i < HOT_KEYS; ++i) {
+            assertTrue(cache.containsKey("hot" + i), "hot" + i);
+        }
+
+        // The same workload flushes an LRU cache of the same capacity
+        LRUCache<String, String> lru = listened(new LRUCache<>());
+        lru.setStalePolicy(new CacheStalePolicy<String, String>() {
+            @Override
+            public boolean shouldRemoveEldestEntry(
+                    final Pair<String, String> entry) {
+                return lru.size() > CAPACITY;
+            }
+        });
+        hotSetThenScan(lru);
+        assertFalse(lru.containsKey("hot0"));
+    }
+
+    @Test
+    void hitsOnProbationPromoteAndOverflowDemotes() {
+        // Window of 1, main region of 9 with a protected segment of 7
+        TinyLFUCache<String, String> cache = listened(new TinyLFUCache<>(10));
+
+        for (int i = 0; i < 10; ++i) {
+            cache.put("k" + i, "value");
+        }
+        assertEquals("k0", cache.getEldestEntry().getKey());
+
+        // Promoted from probation to the protected segment
+        for (int i = 0; i < 8; ++i) {
+            cache.get("k" + i);
+        }
+
+        // The eighth promotion sent k0 back to probation, ahead of k8
+        assertEquals("k8", cache.getEldestEntry().getKey());
+        cache.get("k8");
+        assertEquals("k0", cache.getEldestEntry().getKey());
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void agingLetsNewFrequentKeysIn() {
+        TinyLFUCache<String, String> cache =
+                listened(new TinyLFUCache<>(CAPACITY));
+
+        // old is seen often, then becomes the eldest entry on probation
+        cache.put("old", "value");
+        for (int i = 0; i < 20; ++i) {
+            cache.get("old");
+        }
+        for (int i = 0; i < CAPACITY; ++i) {
+            cache.put("filler" + i, "value");
+        }
+
+        // A key seen three times does not beat it
+        admitAfterThreeAccesses(cache, "early");
+        assertFalse(cache.containsKey("early"));
+        assertTrue(cache.containsKey("old"));
+
+        // The sketch is halved every 10 x capacity accesses
+        for (int i = 0; i < 10 * 10 * CAPACITY; ++i) {
+            cache.get("noise");
+        }
+
+        admitAfterThreeAccesses(cache, "late");
+        assertTrue(cache.containsKey("late"));
+        assertFalse(cache.containsKey("old"));
+    }
+
+    /**
+     * Accesses a new key three times, then pushes it out of the window so
+     * that it competes with the eldest entry on probation.
+     */
+    private static void admitAfterThreeAccesses(
+            final TinyLFUCache<String, String> cache, final String key) {
+        cache.get(key);
+        cache.get(key);
+        cache.put(key, "value");
+        cache.put(key + "-next", "value");
+    }
+}
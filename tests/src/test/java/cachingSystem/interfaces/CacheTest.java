@@ -0,0 +1,69 @@
+package cachingSystem.interfaces;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import dataStructures.classes.Pair;
+
+class CacheTest {
+
+    /**
+     * A cache written against the interface before containsKey existed.
+     */
+    private static final class MapCache implements Cache<String, String> {
+        private final Map<String, String> map = new HashMap<>();
+        private int gets;
+
+        @Override
+        public String get(final String key) {
+            gets++;
+            return map.get(key);
+        }
+
+        @Override
+        public void put(final String key, final String value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public String remove(final String key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public void clearAll() {
+            map.clear();
+        }
+
+        @Override
+        public Pair<String, String> getEldestEntry() {
+            return null;
+        }
+    }
+
+    @Test
+    void containsKeyFallsBackOnGet() {
+        MapCache cache = new MapCache();
+        cache.put("a", "1");
+
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertEquals(2, cache.gets);
+    }
+}
@@ -0,0 +1,89 @@
+package dataStructures.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    private static final int KEYS = 2_000;
+    private static final int INCREMENTS = 50_000;
+
+    @Test
+    void neverUnderestimatesAndStaysWithinTheBound() {
+        double epsilon = 0.01;
+        CountMinSketch sketch = CountMinSketch.withErrorBounds(epsilon, 0.99);
+        Map<Integer, Integer> counts = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < INCREMENTS; ++i) {
+            // Skewed keys, a few of them are much more frequent
+            int key = (int) (KEYS * Math.pow(random.nextDouble(), 3));
+            sketch.increment(key);
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        int overBound = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+
+            assertTrue(estimate >= entry.getValue());
+            if (estimate - entry.getValue() > epsilon * INCREMENTS) {
+                ++overBound;
+            }
+        }
+        assertTrue(overBound <= counts.size() / 100, "over " + overBound);
+    }
+
+    @Test
+    void countersStopAtTheMaximum() {
+        CountMinSketch sketch = new CountMinSketch(16, 4, 15);
+
+        for (int i = 0; i < 100; ++i) {
+            sketch.increment("key");
+        }
+
+        assertEquals(15, sketch.estimate("key"));
+    }
+
+    @Test
+    void halveAndClear() {
+        CountMinSketch sketch = new CountMinSketch(1_024, 4, 1_000);
+
+        for (int i = 0; i < 9; ++i) {
+            sketch.increment("key");
+        }
+        assertEquals(9, sketch.estimate("key"));
+
+        sketch.halve();
+        assertEquals(4, sketch.estimate("key"));
+
+        sketch.clear();
+        assertEquals(0, sketch.estimate("key"));
+    }
+
+    @Test
+    void singleColumnCountsEverything() {
+        CountMinSketch sketch = new CountMinSketch(1, 2, 1_000);
+        sketch.increment("a");
+        sketch.increment("b");
+
+        assertEquals(2, sketch.estimate("c"));
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CountMinSketch(0, 4, 15));
+        assertThrows(IllegalArgumentException.class,
+                () -> CountMinSketch.withErrorBounds(0, 0.9));
+        assertThrows(IllegalArgumentException.class,
+                () -> CountMinSketch.withErrorBounds(0.1, 1));
+    }
+}
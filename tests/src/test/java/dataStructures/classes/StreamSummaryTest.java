@@ -0,0 +1,121 @@
+package dataStructures.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StreamSummaryTest {
+
+    private static void increment(final StreamSummary<String> summary,
+            final String... keys) {
+        for (String key : keys) {
+            summary.increment(key);
+        }
+    }
+
+    @Test
+    void countsEveryKeyWhenUnbounded() {
+        StreamSummary<String> summary = new StreamSummary<>();
+        increment(summary, "a", "b", "a", "c", "a", "b");
+
+        assertEquals(3, summary.size());
+        assertEquals(3, summary.count("a"));
+        assertEquals(2, summary.count("b"));
+        assertEquals(1, summary.count("c"));
+        assertEquals(0, summary.count("d"));
+        assertEquals(0, summary.error("a"));
+        assertEquals(List.of("a", "b", "c"), summary.top(10));
+        assertEquals(List.of("a"), summary.top(1));
+        assertTrue(summary.top(0).isEmpty());
+    }
+
+    @Test
+    void tiesFollowTheGivenOrder() {
+        StreamSummary<String> summary =
+                new StreamSummary<>(10, Comparator.reverseOrder());
+        increment(summary, "b", "d", "a", "c", "e", "e");
+
+        assertEquals(List.of("e", "d", "c"), summary.top(3));
+        assertEquals(List.of("e", "d", "c", "b", "a"), summary.top(5));
+    }
+
+    @Test
+    void fullSummaryReplacesASmallestCount() {
+        StreamSummary<String> summary = new StreamSummary<>(2);
+        increment(summary, "a", "a", "a", "b", "c");
+
+        // c took the place of b and inherited its count
+        assertEquals(2, summary.size());
+        assertEquals(0, summary.count("b"));
+        assertEquals(2, summary.count("c"));
+        assertEquals(1, summary.error("c"));
+        assertEquals(List.of("a", "c"), summary.top(2));
+    }
+
+    @Test
+    void frequentKeysSurviveReplacement() {
+        StreamSummary<Integer> summary = new StreamSummary<>(10);
+
+        for (int i = 0; i < 1_000; ++i) {
+            summary.increment(i % 3 == 0 ? -1 : i);
+            summary.increment(-2);
+        }
+
+        assertEquals(List.of(-2, -1), summary.top(2));
+        assertEquals(1_000, summary.count(-2));
+    }
+
+    @Test
+    void clearForgetsEveryKey() {
+        StreamSummary<String> summary = new StreamSummary<>();
+        increment(summary, "a", "b");
+        summary.clear();
+
+        assertEquals(0, summary.size());
+        assertTrue(summary.top(5).isEmpty());
+
+        increment(summary, "c");
+        assertEquals(List.of("c"), summary.top(5));
+    }
+
+    @Test
+    void topDoesNotSortTheBoundaryBucket() {
+        List<Integer> compared = new ArrayList<>();
+        StreamSummary<Integer> summary = new StreamSummary<>(10_000,
+                (k1, k2) -> {
+                    compared.add(k1);
+                    return Integer.compare(k1, k2);
+                });
+
+        for (int i = 0; i < 10_000; ++i) {
+            summary.increment(i);
+        }
+        summary.increment(5_000);
+        compared.clear();
+
+        // 9,999 keys share the count 1, yet none of them is compared
+        assertEquals(List.of(5_000, 0, 1), summary.top(3));
+        assertTrue(compared.isEmpty());
+    }
+
+    @Test
+    void fullSummaryReplacesTheLastTiedKey() {
+        StreamSummary<String> summary = new StreamSummary<>(3);
+        increment(summary, "b", "a", "c", "d");
+
+        assertEquals(0, summary.count("c"));
+        assertEquals(List.of("d", "a", "b"), summary.top(3));
+    }
+
+    @Test
+    void rejectsInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamSummary<String>(0));
+    }
+}
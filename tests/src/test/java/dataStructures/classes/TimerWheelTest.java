@@ -0,0 +1,147 @@
+package dataStructures.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    @Test
+    void expiresAtTheDeadline() {
+        TimerWheel<String> wheel = new TimerWheel<>(0);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", 0, 10);
+        wheel.schedule("b", 0, 100);
+
+        wheel.advance(9, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(10, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.size());
+        assertEquals(-1, wheel.getDuration("a"));
+    }
+
+    @Test
+    void farTimersCascadeToTheirDeadline() {
+        TimerWheel<Long> wheel = new TimerWheel<>(0);
+        List<Long> expired = new ArrayList<>();
+        long[] durations = {1, 63, 64, 65, 4_095, 4_096, 300_000, 20_000_000};
+
+        for (long duration : durations) {
+            wheel.schedule(duration, 0, duration);
+        }
+
+        // Small steps, every timer is seen exactly at its deadline
+        for (long step = 1; step <= 20_000_000; step += 7) {
+            long now = step;
+            wheel.advance(now, key -> {
+                expired.add(key);
+                assertTrue(key <= now && key > now - 7, key + " at " + now);
+            });
+        }
+        wheel.advance(20_000_000, expired::add);
+
+        assertEquals(durations.length, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void oneBigStepExpiresEverythingDue() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(0);
+        List<Integer> expired = new ArrayList<>();
+
+        for (int i = 0; i < 1_000; ++i) {
+            wheel.schedule(i, 0, i * 1_000L);
+        }
+
+        wheel.advance(500_000, expired::add);
+        assertEquals(501, expired.size());
+        assertEquals(499, wheel.size());
+    }
+
+    @Test
+    void rescheduleKeepsTheStart() {
+        TimerWheel<String> wheel = new TimerWheel<>(0);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("shorter", 0, 1_000);
+        wheel.schedule("longer", 0, 100);
+        wheel.schedule("past", 0, 1_000);
+        wheel.advance(60, expired::add);
+
+        wheel.reschedule("shorter", 80);
+        wheel.reschedule("longer", 200);
+        wheel.reschedule("past", 50);
+        wheel.reschedule("missing", 50);
+        assertEquals(200, wheel.getDuration("longer"));
+        assertEquals(-1, wheel.getDuration("missing"));
+
+        wheel.advance(61, expired::add);
+        assertEquals(List.of("past"), expired);
+
+        wheel.advance(150, expired::add);
+        assertEquals(List.of("past", "shorter"), expired);
+
+        wheel.advance(200, expired::add);
+        assertEquals(List.of("past", "shorter", "longer"), expired);
+    }
+
+    @Test
+    void touchCancelAndClear() {
+        TimerWheel<String> wheel = new TimerWheel<>(0);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("touched", 0, 100);
+        wheel.schedule("cancelled", 0, 100);
+        wheel.schedule("replaced", 0, 100);
+
+        wheel.touch("touched", 80);
+        wheel.cancel("cancelled");
+        wheel.schedule("replaced", 0, 500);
+        wheel.advance(150, expired::add);
+
+        assertTrue(expired.isEmpty());
+        wheel.advance(180, expired::add);
+        assertEquals(List.of("touched"), expired);
+
+        wheel.clear();
+        wheel.advance(1_000, expired::add);
+        assertEquals(List.of("touched"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+        @Test
+    void longDurationsNeverWrapAround() {
+        TimerWheel<String> wheel = new TimerWheel<>(1_000);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("forever", 1_000, Long.MAX_VALUE);
+        wheel.schedule("soon", 1_000, 5);
+        wheel.advance(1_000_000, expired::add);
+
+        assertEquals(List.of("soon"), expired);
+        assertEquals(Long.MAX_VALUE, wheel.getDuration("forever"));
+
+        wheel.touch("forever", 2_000_000);
+        wheel.advance(3_000_000, expired::add);
+        assertEquals(List.of("soon"), expired);
+    }
+
+    @Test
+    void negativeTimesWithLongDurations() {
+        TimerWheel<String> wheel = new TimerWheel<>(-1_000);
+        List<String> expired = new ArrayList<>();
+
+        wheel.schedule("forever", -1_000, Long.MAX_VALUE);
+        wheel.advance(1_000, expired::add);
+
+        assertTrue(expired.isEmpty());
+        assertEquals(1, wheel.size());
+    }
+}
@@ -0,0 +1,31 @@
+package observerPattern.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ApproximateKeyStatsListenerTest {
+
+    @Test
+    void estimatesNeverUnderCountAndFindTheTopKeys() {
+        ApproximateKeyStatsListener<Integer, Integer> listener =
+                new ApproximateKeyStatsListener<>(0.01, 0.99, 8);
+
+        for (int i = 0; i < 10_000; ++i) {
+            listener.onHit(i % 4 == 0 ? -1 : i);
+            listener.onMiss(i % 100);
+        }
+        listener.onPut(7, 7);
+
+        // Off by at most epsilon times the 10 000 hits
+        assertTrue(listener.getKeyHits(-1) >= 2_500);
+        assertTrue(listener.getKeyHits(-1) <= 2_600);
+        assertTrue(listener.getKeyMisses(5) >= 100);
+        assertTrue(listener.getKeyUpdates(7) >= 1);
+        assertEquals(List.of(-1), listener.getTopHitKeys(1));
+        assertEquals(List.of(7), listener.getTopUpdatedKeys(3));
+    }
+}
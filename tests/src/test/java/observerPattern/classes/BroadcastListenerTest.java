@@ -0,0 +1,175 @@
+package observerPattern.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import observerPattern.interfaces.CacheListener;
+
+class BroadcastListenerTest {
+
+    private static final int EVENTS = 100_000;
+    private static final int BUFFER_SIZE = 64;
+    private static final long IDLE_MILLIS = 200;
+
+    /**
+     * Listener that records the keys of the hits.
+     */
+    private static final class HitRecorder
+            implements CacheListener<Integer, Integer> {
+        private final List<Integer> hits = new ArrayList<>();
+
+        @Override
+        public void onHit(final Integer key) {
+            hits.add(key);
+        }
+
+        @Override
+        public void onMiss(final Integer key) {
+        }
+
+        @Override
+        public void onPut(final Integer key, final Integer value) {
+        }
+    }
+
+    private static Thread dispatchThread() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("broadcast-listener")) {
+                return thread;
+            }
+        }
+        throw new AssertionError("No dispatch thread");
+    }
+
+    @Test
+    void blockingModeDeliversEveryEventInOrder() {
+        try (BroadcastListener<Integer, Integer> broadcast =
+                new BroadcastListener<>(BUFFER_SIZE,
+                        BroadcastListener.Backpressure.BLOCK)) {
+            HitRecorder recorder = new HitRecorder();
+            broadcast.addAsyncListener(recorder);
+
+            for (int i = 0; i < EVENTS; ++i) {
+                broadcast.onHit(i);
+            }
+            broadcast.flush();
+
+            assertEquals(EVENTS, recorder.hits.size());
+            for (int i = 0; i < EVENTS; ++i) {
+                assertEquals(i, recorder.hits.get(i).intValue());
+            }
+            assertEquals(0, broadcast.getDroppedEvents());
+        }
+    }
+
+    @Test
+    void dropModeCountsTheEventsItLoses() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (BroadcastListener<Integer, Integer> broadcast =
+                new BroadcastListener<>(BUFFER_SIZE,
+                        BroadcastListener.Backpressure.DROP)) {
+            HitRecorder recorder = new HitRecorder();
+            broadcast.addAsyncListener(new CacheListener<Integer, Integer>() {
+                @Override
+                public void onHit(final Integer key) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void onMiss(final Integer key) {
+                }
+
+                @Override
+                public void onPut(final Integer key, final Integer value) {
+                }
+            });
+            broadcast.addAsyncListener(recorder);
+
+            // The first event blocks the dispatcher, the buffer fills up
+            for (int i = 0; i < EVENTS; ++i) {
+                broadcast.onHit(i);
+            }
+            release.countDown();
+            broadcast.flush();
+
+            long dropped = broadcast.getDroppedEvents();
+            assertTrue(dropped > 0);
+            assertEquals(EVENTS, recorder.hits.size() + dropped);
+        }
+    }
+
+    @Test
+    void closeDeliversThePendingEvents() {
+        BroadcastListener<Integer, Integer> broadcast = new BroadcastListener<>();
+        HitRecorder recorder = new HitRecorder();
+        broadcast.addAsyncListener(recorder);
+
+        for (int i = 0; i < 1_000; ++i) {
+            broadcast.onHit(i);
+        }
+        broadcast.close();
+        assertEquals(1_000, recorder.hits.size());
+
+        // Not delivered any more once closed
+        broadcast.onHit(-1);
+        assertEquals(1_000, recorder.hits.size());
+    }
+
+    @Test
+    void failingListenerDoesNotStopDispatch() {
+        try (BroadcastListener<Integer, Integer> broadcast =
+                new BroadcastListener<>()) {
+            HitRecorder recorder = new HitRecorder();
+            broadcast.addAsyncListener(new CacheListener<Integer, Integer>() {
+                @Override
+                public void onHit(final Integer key) {
+                    throw new IllegalStateException("listener failed");
+                }
+
+                @Override
+                public void onMiss(final Integer key) {
+                }
+
+                @Override
+                public void onPut(final Integer key, final Integer value) {
+                }
+            });
+            broadcast.addAsyncListener(recorder);
+
+            broadcast.onHit(1);
+            broadcast.onHit(2);
+            broadcast.flush();
+
+            assertEquals(List.of(1, 2), recorder.hits);
+            assertEquals(2, broadcast.getFailedEvents());
+        }
+    }
+
+    @Test
+    void idleDispatcherParksUntilPublished() throws Exception {
+        try (BroadcastListener<Integer, Integer> broadcast =
+                new BroadcastListener<>()) {
+            HitRecorder recorder = new HitRecorder();
+            broadcast.addAsyncListener(recorder);
+            Thread.sleep(IDLE_MILLIS);
+
+            // Parked without a timeout, not polling
+            assertEquals(Thread.State.WAITING, dispatchThread().getState());
+
+            broadcast.onHit(1);
+            broadcast.flush();
+            assertEquals(List.of(1), recorder.hits);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package observerPattern.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentKeyStatsListenerTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 5_000;
+
+    @Test
+    void countsEventsFromManyThreads() throws Exception {
+        ConcurrentKeyStatsListener<Integer, Integer> listener =
+                new ConcurrentKeyStatsListener<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; ++i) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+
+                    // Key k gets k hits per round
+                    for (int round = 0; round < ROUNDS; ++round) {
+                        for (int key = 1; key <= 4; ++key) {
+                            for (int hit = 0; hit < key; ++hit) {
+                                listener.onHit(key);
+                            }
+                        }
+                        listener.onMiss(0);
+                        listener.onPut(round % 2, round);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int key = 1; key <= 4; ++key) {
+            assertEquals((long) THREADS * ROUNDS * key,
+                    listener.getKeyHits(key));
+        }
+        assertEquals((long) THREADS * ROUNDS, listener.getKeyMisses(0));
+        assertEquals((long) THREADS * ROUNDS / 2, listener.getKeyUpdates(1));
+        assertEquals(List.of(4, 3), listener.getTopHitKeys(2));
+        assertEquals(List.of(0), listener.getTopMissedKeys(5));
+    }
+}
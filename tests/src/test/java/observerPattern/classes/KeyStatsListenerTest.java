@@ -0,0 +1,75 @@
+package observerPattern.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class KeyStatsListenerTest {
+
+    private static void hit(final KeyStatsListener<String, String> listener,
+            final String... keys) {
+        for (String key : keys) {
+            listener.onHit(key);
+        }
+    }
+
+    @Test
+    void tiesAreOrderedByKey() {
+        KeyStatsListener<String, String> listener = new KeyStatsListener<>();
+        hit(listener, "c", "a", "b", "a", "c", "d", "b");
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"),
+                listener.getTopHitKeys(10));
+        assertEquals(Arrays.asList("a", "b"), listener.getTopHitKeys(2));
+    }
+
+    @Test
+    void higherCountsComeFirst() {
+        KeyStatsListener<String, String> listener = new KeyStatsListener<>();
+        hit(listener, "z", "y", "z", "x", "y", "z", "w");
+
+        assertEquals(Arrays.asList("z", "y", "w"), listener.getTopHitKeys(3));
+    }
+
+    @Test
+    void unseenKeysCountZero() {
+        KeyStatsListener<String, String> listener = new KeyStatsListener<>();
+        hit(listener, "a");
+        listener.onPut("b", "value");
+
+        assertEquals(1, listener.getKeyHits("a"));
+        assertEquals(0, listener.getKeyHits("b"));
+        assertEquals(0, listener.getKeyMisses("a"));
+        assertEquals(1, listener.getKeyUpdates("b"));
+    }
+
+    @Test
+    void boundedListenerKeepsTheFrequentKeys() {
+        KeyStatsListener<String, String> listener = new KeyStatsListener<>(4);
+
+        for (int i = 0; i < 500; ++i) {
+            hit(listener, "hot", "scan" + i);
+        }
+
+        assertEquals("hot", listener.getTopHitKeys(1).get(0));
+        assertEquals(500, listener.getKeyHits("hot"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void makeListFromMapSortsByValue() {
+        KeyStatsListener<String, String> listener = new KeyStatsListener<>();
+        TreeMap<String, Integer> map = new TreeMap<>();
+        map.put("c", 2);
+        map.put("a", 2);
+        map.put("d", 1);
+        map.put("b", 3);
+
+        List<String> top = listener.makeListFromMap(3, map);
+        assertEquals(Arrays.asList("b", "a", "c"), top);
+    }
+}